@@ -0,0 +1,125 @@
+package effective.code.chapter01.item05;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 사전 구현별로 contains, closeWordsTo 의 처리량과 지연을 잰다. SpellChecker 를 거치지 않고 사전을 바로 부른다.
+ * 스레드 수는 @Param 으로 바꿀 수 없어서 하위 클래스마다 @Threads 를 다르게 붙였다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class DictionaryBenchmark {
+
+   private static final int WORDS = 100_000;
+   private static final int QUERIES = 4_096;
+
+   @Param({"TRIE", "SYMSPELL", "MAPPED", "BLOOM_TRIE", "CACHING_TRIE"})
+   public String dictionary;
+
+   private Dictionary selected;
+   private String[] queries;
+   private String[] typos;
+   private Path mappedFile;
+
+   @Setup(Level.Trial)
+   public void setUp() throws IOException {
+      Random random = new Random(42);
+      Map<String, Integer> frequencies = new HashMap<>();
+      while (frequencies.size() < WORDS)
+         frequencies.put(randomWord(random), 1 + random.nextInt(1_000));
+      List<String> words = new ArrayList<>(frequencies.keySet());
+
+      queries = new String[QUERIES];
+      typos = new String[QUERIES];
+      for (int i = 0; i < QUERIES; i++) {
+         String word = words.get(random.nextInt(words.size()));
+         typos[i] = typo(word, random);
+         queries[i] = i % 4 == 0 ? typos[i] : word; // 대부분은 맞는 단어
+      }
+
+      selected = dictionary(frequencies);
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() throws IOException {
+      if (mappedFile != null)
+         Files.deleteIfExists(mappedFile);
+   }
+
+   @Benchmark
+   public boolean contains() {
+      return selected.contains(queries[ThreadLocalRandom.current().nextInt(QUERIES)]);
+   }
+
+   @Benchmark
+   public List<String> closeWordsTo() {
+      return selected.closeWordsTo(typos[ThreadLocalRandom.current().nextInt(QUERIES)]);
+   }
+
+   private Dictionary dictionary(Map<String, Integer> frequencies) throws IOException {
+      switch (dictionary) {
+         case "TRIE":
+            return new TrieDictionary(frequencies, TrieDictionary.DEFAULT_MAX_DISTANCE);
+         case "SYMSPELL":
+            return new SymSpellDictionary(frequencies, TrieDictionary.DEFAULT_MAX_DISTANCE);
+         case "MAPPED":
+            mappedFile = Files.createTempFile("dictionary", ".bin");
+            DictionaryCompiler.compile(frequencies, mappedFile);
+            return MappedDictionary.open(mappedFile);
+         case "BLOOM_TRIE":
+            return BloomFilterDictionary.of(frequencies, f -> new TrieDictionary(f, TrieDictionary.DEFAULT_MAX_DISTANCE), 10);
+         case "CACHING_TRIE":
+            return new CachingDictionary(new TrieDictionary(frequencies, TrieDictionary.DEFAULT_MAX_DISTANCE), 1_024);
+         default:
+            throw new IllegalArgumentException(dictionary);
+      }
+   }
+
+   static String randomWord(Random random) {
+      int length = 3 + random.nextInt(8);
+      char[] chars = new char[length];
+      for (int i = 0; i < length; i++)
+         chars[i] = (char) ('a' + random.nextInt(26));
+      return new String(chars);
+   }
+
+   static String typo(String word, Random random) {
+      char[] chars = word.toCharArray();
+      chars[random.nextInt(chars.length)] = (char) ('a' + random.nextInt(26));
+      return new String(chars);
+   }
+
+   @Threads(1)
+   public static class OneThread extends DictionaryBenchmark {
+   }
+
+   @Threads(4)
+   public static class FourThreads extends DictionaryBenchmark {
+   }
+
+   @Threads(Threads.MAX)
+   public static class MaxThreads extends DictionaryBenchmark {
+   }
+}
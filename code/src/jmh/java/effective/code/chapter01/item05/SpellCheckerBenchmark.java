@@ -0,0 +1,142 @@
+package effective.code.chapter01.item05;
+
+import effective.code.chapter01.item05.dependencyinjection.DictionaryFactory;
+import effective.code.chapter01.item05.springioc.AppConfig;
+import effective.code.chapter01.item05.springioc.DictionaryHolder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * SpellChecker 를 사전에 연결하는 방법(wiring)별로 isValid, suggestions 의 처리량과 지연을 잰다.
+ * SINGLETON, STATIC_UTILS 는 DefaultDictionary 를 직접 만들기 때문에, 나머지도 모두 DefaultDictionary 에 연결해서 연결 방법의 비용만 비교한다.
+ * 사전 구현끼리의 비교는 {@link DictionaryBenchmark} 에서 한다.
+ * 스레드 수는 @Param 으로 바꿀 수 없어서 하위 클래스마다 @Threads 를 다르게 붙였다.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public abstract class SpellCheckerBenchmark {
+
+   private static final int QUERIES = 4_096;
+
+   @Param({"SINGLETON", "STATIC_UTILS", "DEPENDENCY_INJECTION", "SUPPLIER", "FACTORY_METHOD", "SPRING"})
+   public String wiring;
+
+   private Predicate<String> isValid;
+   private Function<String, List<String>> suggestions;
+   private String[] queries;
+   private String[] typos;
+   private AnnotationConfigApplicationContext context;
+
+   @Setup(Level.Trial)
+   public void setUp() {
+      Random random = new Random(42);
+      queries = new String[QUERIES];
+      typos = new String[QUERIES];
+      for (int i = 0; i < QUERIES; i++) {
+         String word = DictionaryBenchmark.randomWord(random);
+         typos[i] = DictionaryBenchmark.typo(word, random);
+         queries[i] = i % 4 == 0 ? typos[i] : word;
+      }
+
+      wire(new DefaultDictionary());
+   }
+
+   @TearDown(Level.Trial)
+   public void tearDown() {
+      if (context != null)
+         context.close();
+   }
+
+   @Benchmark
+   public boolean isValid() {
+      return isValid.test(queries[ThreadLocalRandom.current().nextInt(QUERIES)]);
+   }
+
+   @Benchmark
+   public List<String> suggestions() {
+      return suggestions.apply(typos[ThreadLocalRandom.current().nextInt(QUERIES)]);
+   }
+
+   private void wire(Dictionary selected) {
+      switch (wiring) {
+         case "SINGLETON": {
+            effective.code.chapter01.item05.singleton.SpellChecker checker =
+                  effective.code.chapter01.item05.singleton.SpellChecker.INSTANCE;
+            isValid = checker::isValid;
+            suggestions = checker::suggestions;
+            break;
+         }
+         case "STATIC_UTILS":
+            isValid = effective.code.chapter01.item05.staticutils.SpellChecker::isValid;
+            suggestions = effective.code.chapter01.item05.staticutils.SpellChecker::suggestions;
+            break;
+         case "DEPENDENCY_INJECTION": {
+            effective.code.chapter01.item05.dependencyinjection.SpellChecker checker =
+                  new effective.code.chapter01.item05.dependencyinjection.SpellChecker(new DictionaryFactory() {
+                     @Override
+                     public Dictionary get() {
+                        return selected;
+                     }
+                  });
+            isValid = checker::isValid;
+            suggestions = checker::suggestions;
+            break;
+         }
+         case "SUPPLIER": {
+            effective.code.chapter01.item05.dependencyinjection.SpellChecker checker =
+                  new effective.code.chapter01.item05.dependencyinjection.SpellChecker(() -> selected);
+            isValid = checker::isValid;
+            suggestions = checker::suggestions;
+            break;
+         }
+         case "FACTORY_METHOD": {
+            effective.code.chapter01.item05.factorymethod.SpellChecker checker =
+                  new effective.code.chapter01.item05.factorymethod.SpellChecker(() -> selected);
+            isValid = checker::isValid;
+            suggestions = checker::suggestions;
+            break;
+         }
+         case "SPRING": {
+            context = new AnnotationConfigApplicationContext(AppConfig.class);
+            context.getBean(DictionaryHolder.class).reload(() -> selected).join();
+            effective.code.chapter01.item05.springioc.SpellChecker checker =
+                  context.getBean(effective.code.chapter01.item05.springioc.SpellChecker.class);
+            isValid = checker::isValid;
+            suggestions = checker::suggestions;
+            break;
+         }
+         default:
+            throw new IllegalArgumentException(wiring);
+      }
+   }
+
+   @Threads(1)
+   public static class OneThread extends SpellCheckerBenchmark {
+   }
+
+   @Threads(4)
+   public static class FourThreads extends SpellCheckerBenchmark {
+   }
+
+   @Threads(Threads.MAX)
+   public static class MaxThreads extends SpellCheckerBenchmark {
+   }
+}
@@ -0,0 +1,112 @@
+package effective.code.chapter01.item05;
+
+import java.util.Arrays;
+
+/**
+ * rank/select 를 지원하는 읽기 전용 비트 벡터.
+ * 512비트마다 그 앞까지의 1 개수를 적어 두어 rank 는 상수 시간, select 는 블록 이진 탐색 후 짧은 스캔으로 답한다.
+ */
+final class BitVector {
+
+   private static final int WORDS_PER_BLOCK = 8;
+
+   private final long[] words;
+   private final int[] blockRanks;
+   private final long length;
+   private final long ones;
+
+   private BitVector(long[] words, long length) {
+      this.words = words;
+      this.length = length;
+      int blocks = (words.length + WORDS_PER_BLOCK - 1) / WORDS_PER_BLOCK;
+      this.blockRanks = new int[blocks + 1];
+      long count = 0;
+      for (int i = 0; i < words.length; i++) {
+         if (i % WORDS_PER_BLOCK == 0)
+            blockRanks[i / WORDS_PER_BLOCK] = (int) count;
+         count += Long.bitCount(words[i]);
+      }
+      blockRanks[blocks] = (int) count;
+      this.ones = count;
+   }
+
+   boolean get(long index) {
+      return (words[(int) (index >>> 6)] & (1L << index)) != 0;
+   }
+
+   /**
+    * [0, index) 구간의 1 개수.
+    */
+   long rank1(long index) {
+      int word = (int) (index >>> 6);
+      long rank = blockRanks[word / WORDS_PER_BLOCK];
+      for (int i = word - word % WORDS_PER_BLOCK; i < word; i++)
+         rank += Long.bitCount(words[i]);
+      if ((index & 63) != 0)
+         rank += Long.bitCount(words[word] & ((1L << index) - 1));
+      return rank;
+   }
+
+   long rank0(long index) {
+      return index - rank1(index);
+   }
+
+   /**
+    * k 번째(0부터) 0 의 위치.
+    */
+   long select0(long k) {
+      int low = 0;
+      int high = blockRanks.length - 1;
+      while (low < high) { // 앞까지의 0 개수가 k 이하인 마지막 블록
+         int mid = (low + high + 1) >>> 1;
+         long zerosBefore = (long) mid * WORDS_PER_BLOCK * 64 - blockRanks[mid];
+         if (zerosBefore <= k)
+            low = mid;
+         else
+            high = mid - 1;
+      }
+
+      long remaining = k - ((long) low * WORDS_PER_BLOCK * 64 - blockRanks[low]);
+      for (int i = low * WORDS_PER_BLOCK; i < words.length; i++) {
+         long inverted = ~words[i];
+         int zeros = Long.bitCount(inverted);
+         if (remaining < zeros) {
+            for (long r = 0; r < remaining; r++)
+               inverted &= inverted - 1;
+            return ((long) i << 6) + Long.numberOfTrailingZeros(inverted);
+         }
+         remaining -= zeros;
+      }
+      throw new IndexOutOfBoundsException("select0(" + k + ")");
+   }
+
+   long length() {
+      return length;
+   }
+
+   long ones() {
+      return ones;
+   }
+
+   long sizeInBytes() {
+      return 16 + 8L * words.length + 16 + 4L * blockRanks.length;
+   }
+
+   static final class Builder {
+      private long[] words = new long[16];
+      private long length;
+
+      Builder append(boolean bit) {
+         if ((length >>> 6) >= words.length)
+            words = Arrays.copyOf(words, words.length * 2);
+         if (bit)
+            words[(int) (length >>> 6)] |= 1L << length;
+         length++;
+         return this;
+      }
+
+      BitVector build() {
+         return new BitVector(Arrays.copyOf(words, (int) ((length + 63) >>> 6)), length);
+      }
+   }
+}
@@ -0,0 +1,188 @@
+package effective.code.chapter01.item05;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * 다른 사전 앞에 블룸 필터를 두어, 확실히 없는 단어는 실제 사전을 찾아보지 않고 바로 false 를 돌려준다.
+ * 필터와 감싼 사전을 같은 단어 목록으로 함께 만들어서, 사전에 있는 단어를 필터가 없다고 답하는 일이 없게 한다.
+ * 감싼 사전의 {@link Dictionary#version()} 이 만들 때와 달라지면 필터를 믿을 수 없으므로 사전에 바로 묻는다.
+ * 필터는 만든 뒤로 읽기만 하므로 스레드 안전하다.
+ */
+public class BloomFilterDictionary implements Dictionary {
+
+   private final Dictionary dictionary;
+   private final long[] bits;
+   private final long bitCount;
+   private final int hashCount;
+   private final int elements;
+   private final long builtVersion;
+
+   private final LongAdder lookups = new LongAdder();
+   private final LongAdder definitelyAbsent = new LongAdder();
+   private final LongAdder falsePositives = new LongAdder();
+
+   /**
+    * dictionaryFactory 는 words 로 감쌀 사전을 만든다. 필터도 같은 words 로 만든다.
+    */
+   public BloomFilterDictionary(Collection<String> words, Function<? super Collection<String>, ? extends Dictionary> dictionaryFactory,
+                                int bitsPerElement, int hashCount) {
+      this(dictionaryFactory.apply(words), words, bitsPerElement, hashCount);
+   }
+
+   private BloomFilterDictionary(Dictionary dictionary, Collection<String> words, int bitsPerElement, int hashCount) {
+      if (bitsPerElement < 1 || hashCount < 1)
+         throw new IllegalArgumentException("bitsPerElement, hashCount 는 1 이상이어야 합니다.");
+
+      this.dictionary = dictionary;
+      this.builtVersion = dictionary.version();
+      this.hashCount = hashCount;
+      this.elements = words.size();
+      this.bitCount = Math.max(64L, (long) bitsPerElement * elements);
+      this.bits = new long[(int) ((bitCount + 63) >>> 6)];
+      for (String word : words)
+         add(word);
+   }
+
+   /**
+    * 원소당 비트 수에 맞는 최적의 해시 개수(m/n * ln 2)를 사용한다.
+    */
+   public static BloomFilterDictionary of(Collection<String> words, Function<? super Collection<String>, ? extends Dictionary> dictionaryFactory,
+                                          int bitsPerElement) {
+      return new BloomFilterDictionary(dictionaryFactory.apply(words), words, bitsPerElement, optimalHashCount(bitsPerElement));
+   }
+
+   /**
+    * 빈도가 필요한 사전을 감쌀 때 쓴다. 필터는 wordFrequencies 의 키로 만든다.
+    */
+   public static BloomFilterDictionary of(Map<String, Integer> wordFrequencies,
+                                          Function<? super Map<String, Integer>, ? extends Dictionary> dictionaryFactory, int bitsPerElement) {
+      return new BloomFilterDictionary(dictionaryFactory.apply(wordFrequencies), wordFrequencies.keySet(), bitsPerElement,
+            optimalHashCount(bitsPerElement));
+   }
+
+   private static int optimalHashCount(int bitsPerElement) {
+      return Math.max(1, (int) Math.round(bitsPerElement * Math.log(2)));
+   }
+
+   @Override
+   public boolean contains(String word) {
+      lookups.increment();
+      if (word == null || (isCurrent() && !mightContain(word))) {
+         definitelyAbsent.increment();
+         return false;
+      }
+
+      boolean contains = dictionary.contains(word);
+      if (!contains)
+         falsePositives.increment();
+      return contains;
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      lookups.increment();
+      if (isCurrent() && !mightContain(text, start, end)) {
+         definitelyAbsent.increment();
+         return false;
+      }
+
+      boolean contains = dictionary.contains(text, start, end);
+      if (!contains)
+         falsePositives.increment();
+      return contains;
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      return dictionary.closeWordsTo(typo);
+   }
+
+   @Override
+   public long version() {
+      return dictionary.version();
+   }
+
+   public boolean mightContain(String word) {
+      return mightContain(word, 0, word.length());
+   }
+
+   private boolean isCurrent() {
+      return dictionary.version() == builtVersion;
+   }
+
+   private boolean mightContain(CharSequence text, int start, int end) {
+      long hash = hash(text, start, end);
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 1; i <= hashCount; i++) {
+         long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+         if ((bits[(int) (index >>> 6)] & (1L << index)) == 0)
+            return false;
+      }
+      return true;
+   }
+
+   /**
+    * 전체 조회 중 필터만으로 답한 비율.
+    */
+   public double hitRate() {
+      long total = lookups.sum();
+      return total == 0 ? 0.0 : (double) definitelyAbsent.sum() / total;
+   }
+
+   /**
+    * 사전에 없던 단어 중 필터를 통과해 버린 비율.
+    */
+   public double measuredFalsePositiveRate() {
+      long rejected = definitelyAbsent.sum();
+      long passed = falsePositives.sum();
+      return rejected + passed == 0 ? 0.0 : (double) passed / (rejected + passed);
+   }
+
+   public double expectedFalsePositiveRate() {
+      return Math.pow(1 - Math.exp(-(double) hashCount * elements / bitCount), hashCount);
+   }
+
+   public long getLookups() {
+      return lookups.sum();
+   }
+
+   public long getDefinitelyAbsent() {
+      return definitelyAbsent.sum();
+   }
+
+   public long getFalsePositives() {
+      return falsePositives.sum();
+   }
+
+   private void add(String word) {
+      long hash = hash(word, 0, word.length());
+      int h1 = (int) hash;
+      int h2 = (int) (hash >>> 32);
+      for (int i = 1; i <= hashCount; i++) {
+         long index = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+         bits[(int) (index >>> 6)] |= 1L << index;
+      }
+   }
+
+   /**
+    * 64비트 FNV-1a 후 murmur3 의 fmix64 로 섞는다. 상위/하위 32비트를 두 개의 해시로 쓴다. (Kirsch-Mitzenmacher)
+    */
+   private static long hash(CharSequence text, int start, int end) {
+      long h = 0xcbf29ce484222325L;
+      for (int i = start; i < end; i++) {
+         h ^= text.charAt(i);
+         h *= 0x100000001b3L;
+      }
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+   }
+}
@@ -0,0 +1,184 @@
+package effective.code.chapter01.item05;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * closeWordsTo 결과를 크기 제한이 있는 LRU 캐시에 담아두는 사전 래퍼.
+ * 키를 해시로 여러 세그먼트에 나눠 세그먼트마다 따로 잠그므로 스레드끼리 거의 부딪히지 않는다.
+ * 항목마다 계산할 때의 사전 {@link Dictionary#version()} 을 같이 담아 두고, 지금 버전과 다르면 쓰지 않는다.
+ * 버전이 바뀌면 캐시 전체도 버린다.
+ */
+public class CachingDictionary implements Dictionary {
+
+   private final Dictionary dictionary;
+   private final Segment[] segments;
+   private final int segmentMask;
+
+   private volatile long version;
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+   private final LongAdder loadNanos = new LongAdder();
+
+   public CachingDictionary(Dictionary dictionary, int maximumSize) {
+      this(dictionary, maximumSize, Runtime.getRuntime().availableProcessors() * 4);
+   }
+
+   public CachingDictionary(Dictionary dictionary, int maximumSize, int concurrencyLevel) {
+      if (maximumSize < 1)
+         throw new IllegalArgumentException("maximumSize: " + maximumSize);
+
+      int segmentCount = Integer.highestOneBit(Math.max(1, Math.min(concurrencyLevel, maximumSize)) * 2 - 1);
+      this.dictionary = dictionary;
+      this.segments = new Segment[segmentCount];
+      this.segmentMask = segmentCount - 1;
+      int perSegment = (maximumSize + segmentCount - 1) / segmentCount;
+      for (int i = 0; i < segmentCount; i++)
+         segments[i] = new Segment(perSegment);
+      this.version = dictionary.version();
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return dictionary.contains(word);
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      return dictionary.contains(text, start, end);
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      if (typo == null)
+         return dictionary.closeWordsTo(null);
+
+      long current = dictionary.version();
+      checkVersion(current);
+      Segment segment = segmentFor(typo);
+      Entry cached = segment.get(typo);
+      if (cached != null && cached.version == current) {
+         hits.increment();
+         return cached.suggestions;
+      }
+
+      // 같은 오타를 두 스레드가 동시에 계산할 수는 있지만, 세그먼트를 잠근 채로 사전을 찾지는 않는다.
+      misses.increment();
+      long start = System.nanoTime();
+      List<String> loaded = dictionary.closeWordsTo(typo);
+      loadNanos.add(System.nanoTime() - start);
+      if (loaded == null)
+         return null;
+
+      List<String> suggestions = List.copyOf(loaded);
+      // 계산하는 사이에 사전이 바뀌었더라도 옛 버전으로 담기므로 다음 조회에서 걸러진다.
+      segment.put(typo, new Entry(current, suggestions));
+      return suggestions;
+   }
+
+   @Override
+   public long version() {
+      return dictionary.version();
+   }
+
+   public void invalidateAll() {
+      for (Segment segment : segments)
+         segment.clear();
+   }
+
+   public long size() {
+      long size = 0;
+      for (Segment segment : segments)
+         size += segment.size();
+      return size;
+   }
+
+   public double hitRatio() {
+      long hitCount = hits.sum();
+      long total = hitCount + misses.sum();
+      return total == 0 ? 1.0 : (double) hitCount / total;
+   }
+
+   public long getHitCount() {
+      return hits.sum();
+   }
+
+   public long getMissCount() {
+      return misses.sum();
+   }
+
+   public long getEvictionCount() {
+      return evictions.sum();
+   }
+
+   public long getTotalLoadTimeNanos() {
+      return loadNanos.sum();
+   }
+
+   public double averageLoadPenaltyNanos() {
+      long missCount = misses.sum();
+      return missCount == 0 ? 0.0 : (double) loadNanos.sum() / missCount;
+   }
+
+   private void checkVersion(long current) {
+      if (current != version) {
+         synchronized (this) {
+            if (current != version) {
+               invalidateAll();
+               version = current;
+            }
+         }
+      }
+   }
+
+   private Segment segmentFor(String typo) {
+      int h = typo.hashCode();
+      return segments[(h ^ (h >>> 16)) & segmentMask];
+   }
+
+   private static final class Entry {
+      final long version;
+      final List<String> suggestions;
+
+      Entry(long version, List<String> suggestions) {
+         this.version = version;
+         this.suggestions = suggestions;
+      }
+   }
+
+   private final class Segment {
+      private final Map<String, Entry> entries;
+
+      Segment(int capacity) {
+         this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+               if (size() <= capacity)
+                  return false;
+               evictions.increment();
+               return true;
+            }
+         };
+      }
+
+      synchronized Entry get(String typo) {
+         return entries.get(typo);
+      }
+
+      synchronized void put(String typo, Entry entry) {
+         entries.put(typo, entry);
+      }
+
+      synchronized void clear() {
+         entries.clear();
+      }
+
+      synchronized int size() {
+         return entries.size();
+      }
+   }
+}
@@ -0,0 +1,14 @@
+package effective.code.chapter01.item05;
+
+import java.util.List;
+
+/**
+ * 입력 중인 접두사로 단어를 완성해 주는 사전.
+ */
+public interface CompletionDictionary extends Dictionary {
+
+   /**
+    * prefix 로 시작하는 단어를 저장된 빈도가 높은 순으로 최대 limit 개 돌려준다.
+    */
+   List<String> complete(String prefix, int limit);
+}
@@ -7,4 +7,20 @@ import java.util.List;
 public interface Dictionary {
    boolean contains(String word);
    List<String> closeWordsTo(String typo);
+
+   /**
+    * text 의 [start, end) 구간을 단어로 보고 찾는다.
+    * 기본 구현은 문자열을 새로 만들므로, 토큰마다 할당을 피하고 싶은 구현체는 재정의한다.
+    */
+   default boolean contains(CharSequence text, int start, int end) {
+      return contains(text.subSequence(start, end).toString());
+   }
+
+   /**
+    * 사전 내용이 바뀔 때마다 달라지는 값. 내용이 바뀌지 않는 사전은 0 을 돌려준다.
+    * 사전 결과를 캐시하는 쪽은 이 값이 달라지면 캐시를 버린다.
+    */
+   default long version() {
+      return 0;
+   }
 }
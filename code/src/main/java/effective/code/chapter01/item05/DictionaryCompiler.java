@@ -0,0 +1,83 @@
+package effective.code.chapter01.item05;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+/**
+ * 단어 목록을 {@link MappedDictionary} 가 그대로 매핑해서 읽을 수 있는 바이너리 파일로 만든다.
+ *
+ * <pre>
+ * int magic, int version, int count, int maxWordLength
+ * int[count]     frequencies
+ * int[count + 1] offsets (데이터 영역 기준)
+ * byte[]         UTF-8 단어들 (부호 없는 바이트 순으로 정렬)
+ * </pre>
+ */
+public final class DictionaryCompiler {
+
+   static final int MAGIC = 0x44494354; // "DICT"
+   static final int VERSION = 1;
+   static final int HEADER_BYTES = 16;
+
+   private DictionaryCompiler() {
+      throw new AssertionError();
+   }
+
+   public static void compile(Collection<String> words, Path target) throws IOException {
+      compile(WordFrequencies.count(words), target);
+   }
+
+   public static void compile(Map<String, Integer> wordFrequencies, Path target) throws IOException {
+      Entry[] entries = new Entry[wordFrequencies.size()];
+      int index = 0;
+      int maxWordLength = 0;
+      long dataBytes = 0;
+      for (Map.Entry<String, Integer> e : wordFrequencies.entrySet()) {
+         byte[] bytes = e.getKey().getBytes(StandardCharsets.UTF_8);
+         entries[index++] = new Entry(bytes, e.getValue());
+         maxWordLength = Math.max(maxWordLength, e.getKey().length());
+         dataBytes += bytes.length;
+      }
+      Arrays.sort(entries, (a, b) -> Arrays.compareUnsigned(a.bytes, b.bytes));
+
+      long total = HEADER_BYTES + 8L * entries.length + 4 + dataBytes;
+      if (total > Integer.MAX_VALUE)
+         throw new IllegalArgumentException("사전이 너무 큽니다: " + total + " bytes");
+
+      try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(target)))) {
+         out.writeInt(MAGIC);
+         out.writeInt(VERSION);
+         out.writeInt(entries.length);
+         out.writeInt(maxWordLength);
+         for (Entry entry : entries)
+            out.writeInt(entry.frequency);
+
+         int offset = 0;
+         for (Entry entry : entries) {
+            out.writeInt(offset);
+            offset += entry.bytes.length;
+         }
+         out.writeInt(offset);
+
+         for (Entry entry : entries)
+            out.write(entry.bytes);
+      }
+   }
+
+   private static final class Entry {
+      final byte[] bytes;
+      final int frequency;
+
+      Entry(byte[] bytes, int frequency) {
+         this.bytes = bytes;
+         this.frequency = frequency;
+      }
+   }
+}
@@ -0,0 +1,15 @@
+package effective.code.chapter01.item05;
+
+import java.util.Locale;
+
+/**
+ * 언어별 사전을 제공하는 서비스 제공자 인터페이스.
+ * {@code META-INF/services} 에 등록하면 {@link DictionaryRegistry} 가 ServiceLoader 로 찾는다.
+ * 구현체는 가볍게 만들어야 하고, 실제 사전은 {@link #load()} 가 처음 불릴 때 읽는다.
+ */
+public interface DictionaryProvider {
+
+   Locale locale();
+
+   Dictionary load();
+}
@@ -0,0 +1,76 @@
+package effective.code.chapter01.item05;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.ServiceLoader;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * ServiceLoader 로 찾은 {@link DictionaryProvider} 들을 언어별로 들고 있다가,
+ * 어떤 언어의 사전이 처음 요청될 때 읽어서 보관한다.
+ * 그래서 메모리는 클래스패스에 있는 언어 수가 아니라 실제로 쓰인 언어 수에 비례한다.
+ */
+public class DictionaryRegistry {
+
+   private final Map<String, DictionaryProvider> providers;
+   private final ConcurrentHashMap<String, CompletableFuture<Dictionary>> dictionaries = new ConcurrentHashMap<>();
+
+   public DictionaryRegistry() {
+      this(ServiceLoader.load(DictionaryProvider.class));
+   }
+
+   public DictionaryRegistry(Iterable<DictionaryProvider> providers) {
+      Map<String, DictionaryProvider> byTag = new HashMap<>();
+      for (DictionaryProvider provider : providers)
+         byTag.putIfAbsent(provider.locale().toLanguageTag(), provider);
+      this.providers = Collections.unmodifiableMap(byTag);
+   }
+
+   /**
+    * 해당 언어의 사전. "en-US" 제공자가 없으면 "en" 제공자를 찾는다.
+    */
+   public Optional<Dictionary> get(Locale locale) {
+      String tag = locale.toLanguageTag();
+      if (!providers.containsKey(tag))
+         tag = locale.getLanguage();
+      DictionaryProvider provider = providers.get(tag);
+      if (provider == null)
+         return Optional.empty();
+
+      // 같은 언어를 동시에 요청하면 한 번만 읽고 나머지는 그 결과를 기다린다.
+      // computeIfAbsent 안에서 읽으면 같은 버킷의 다른 언어까지 막히므로 자리만 먼저 잡는다.
+      CompletableFuture<Dictionary> future = dictionaries.get(tag);
+      if (future == null) {
+         CompletableFuture<Dictionary> created = new CompletableFuture<>();
+         future = dictionaries.putIfAbsent(tag, created);
+         if (future == null) {
+            future = created;
+            try {
+               created.complete(provider.load());
+            } catch (Throwable e) {
+               // Error 라도 자리를 비우고 완료해야 기다리던 쪽이 멈추지 않는다. 다음 요청에서 다시 시도한다.
+               dictionaries.remove(tag, created);
+               created.completeExceptionally(e);
+            }
+         }
+      }
+      return Optional.of(future.join());
+   }
+
+   public Set<String> availableLanguageTags() {
+      return providers.keySet();
+   }
+
+   public Set<String> loadedLanguageTags() {
+      return dictionaries.entrySet().stream()
+            .filter(e -> e.getValue().isDone() && !e.getValue().isCompletedExceptionally())
+            .map(Map.Entry::getKey)
+            .collect(Collectors.toUnmodifiableSet());
+   }
+}
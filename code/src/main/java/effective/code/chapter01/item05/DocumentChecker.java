@@ -0,0 +1,129 @@
+package effective.code.chapter01.item05;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+/**
+ * 문서 단위로 철자를 검사한다.
+ * 문서를 단어 경계에서 조각으로 나눠 포크-조인 풀에서 병렬로 검사하고,
+ * 토큰은 문자열을 만들지 않고 {@link Dictionary#contains(CharSequence, int, int)} 로 구간째 찾는다.
+ * 문자열은 틀린 단어에 대해서만 만든다.
+ */
+public class DocumentChecker {
+
+   static final int DEFAULT_CHUNK_SIZE = 1 << 16;
+
+   private final Dictionary dictionary;
+   private final ForkJoinPool pool;
+   private final int chunkSize;
+
+   public DocumentChecker(Dictionary dictionary) {
+      this(dictionary, ForkJoinPool.commonPool(), DEFAULT_CHUNK_SIZE);
+   }
+
+   public DocumentChecker(Dictionary dictionary, ForkJoinPool pool, int chunkSize) {
+      if (chunkSize < 1)
+         throw new IllegalArgumentException("chunkSize: " + chunkSize);
+      this.dictionary = dictionary;
+      this.pool = pool;
+      this.chunkSize = chunkSize;
+   }
+
+   public List<Misspelling> check(CharSequence text, boolean withSuggestions) {
+      return pool.invoke(new ChunkTask(text, 0, text.length(), withSuggestions));
+   }
+
+   public List<Misspelling> check(Reader reader, boolean withSuggestions) throws IOException {
+      StringBuilder text = new StringBuilder();
+      char[] buffer = new char[8192];
+      for (int read; (read = reader.read(buffer)) != -1; )
+         text.append(buffer, 0, read);
+      return check(text, withSuggestions);
+   }
+
+   /**
+    * 이미 나뉜 단어 스트림을 검사한다. 이때 offset 은 단어의 순번이다.
+    */
+   public List<Misspelling> check(Stream<String> words, boolean withSuggestions) {
+      List<String> tokens = words.collect(Collectors.toList());
+      try {
+         // 풀 안에서 병렬 스트림을 돌리면 그 풀의 워커가 작업을 나눠 갖는다.
+         return pool.submit(() -> IntStream.range(0, tokens.size()).parallel()
+               .filter(i -> !dictionary.contains(tokens.get(i)))
+               .mapToObj(i -> misspelling(i, tokens.get(i), withSuggestions))
+               .collect(Collectors.toList())).get();
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException(e);
+      } catch (ExecutionException e) {
+         throw new IllegalStateException(e.getCause());
+      }
+   }
+
+   private Misspelling misspelling(int offset, String word, boolean withSuggestions) {
+      return new Misspelling(offset, word, withSuggestions ? dictionary.closeWordsTo(word) : null);
+   }
+
+   static boolean isWordChar(char c) {
+      return Character.isLetter(c) || c == '\'';
+   }
+
+   private class ChunkTask extends RecursiveTask<List<Misspelling>> {
+      private final CharSequence text;
+      private final int start;
+      private final int end;
+      private final boolean withSuggestions;
+
+      ChunkTask(CharSequence text, int start, int end, boolean withSuggestions) {
+         this.text = text;
+         this.start = start;
+         this.end = end;
+         this.withSuggestions = withSuggestions;
+      }
+
+      @Override
+      protected List<Misspelling> compute() {
+         if (end - start <= chunkSize)
+            return scan();
+
+         // 단어 중간에서 자르지 않도록 분할 지점을 다음 단어 경계까지 민다.
+         int middle = start + (end - start) / 2;
+         while (middle < end && isWordChar(text.charAt(middle)))
+            middle++;
+         if (middle == end)
+            return scan();
+
+         ChunkTask left = new ChunkTask(text, start, middle, withSuggestions);
+         left.fork();
+         List<Misspelling> right = new ChunkTask(text, middle, end, withSuggestions).compute();
+         List<Misspelling> result = left.join();
+         if (result.isEmpty())
+            return right;
+         result.addAll(right);
+         return result;
+      }
+
+      private List<Misspelling> scan() {
+         List<Misspelling> result = new ArrayList<>();
+         int i = start;
+         while (i < end) {
+            while (i < end && !isWordChar(text.charAt(i)))
+               i++;
+            int wordStart = i;
+            while (i < end && isWordChar(text.charAt(i)))
+               i++;
+            if (wordStart < i && !dictionary.contains(text, wordStart, i))
+               result.add(misspelling(wordStart, text.subSequence(wordStart, i).toString(), withSuggestions));
+         }
+         return result;
+      }
+   }
+}
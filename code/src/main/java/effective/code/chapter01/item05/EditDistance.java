@@ -0,0 +1,59 @@
+package effective.code.chapter01.item05;
+
+/**
+ * 사전 구현들이 후보를 검증할 때 쓰는 레벤슈타인 거리 계산.
+ */
+public final class EditDistance {
+
+   private EditDistance() {
+      throw new AssertionError();
+   }
+
+   /**
+    * 두 문자열의 거리를 구하되, maxDistance 를 넘는 것이 확실해지면 바로 maxDistance + 1 을 돌려준다.
+    */
+   public static int bounded(CharSequence a, CharSequence b, int maxDistance) {
+      int n = a.length();
+      int m = b.length();
+      if (Math.abs(n - m) > maxDistance)
+         return maxDistance + 1;
+
+      int[] previous = new int[m + 1];
+      int[] current = new int[m + 1];
+      for (int j = 0; j <= m; j++)
+         previous[j] = j;
+
+      for (int i = 1; i <= n; i++) {
+         current[0] = i;
+         int rowMin = i;
+         char ca = a.charAt(i - 1);
+         for (int j = 1; j <= m; j++) {
+            int replace = previous[j - 1] + (ca == b.charAt(j - 1) ? 0 : 1);
+            current[j] = Math.min(replace, Math.min(previous[j], current[j - 1]) + 1);
+            rowMin = Math.min(rowMin, current[j]);
+         }
+         if (rowMin > maxDistance)
+            return maxDistance + 1;
+
+         int[] swap = previous;
+         previous = current;
+         current = swap;
+      }
+      return Math.min(previous[m], maxDistance + 1);
+   }
+
+   /**
+    * 트라이를 내려가며 거리 표를 한 행씩 채울 때 쓴다. previous 는 부모 노드까지의 행이고,
+    * current 에 label 을 하나 더 붙인 행을 채운다. 이 행의 최솟값이 최대 거리를 넘으면 아래로는 후보가 없다.
+    */
+   static int fillRow(int[] previous, int[] current, char label, CharSequence typo) {
+      current[0] = previous[0] + 1;
+      int rowMin = current[0];
+      for (int i = 1; i < current.length; i++) {
+         int replace = previous[i - 1] + (typo.charAt(i - 1) == label ? 0 : 1);
+         current[i] = Math.min(replace, Math.min(previous[i], current[i - 1]) + 1);
+         rowMin = Math.min(rowMin, current[i]);
+      }
+      return rowMin;
+   }
+}
@@ -0,0 +1,40 @@
+package effective.code.chapter01.item05;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+public class EnglishDictionaryProvider implements DictionaryProvider {
+
+   private static final String RESOURCE = "/dictionary/en.txt";
+
+   @Override
+   public Locale locale() {
+      return Locale.ENGLISH;
+   }
+
+   @Override
+   public Dictionary load() {
+      InputStream in = EnglishDictionaryProvider.class.getResourceAsStream(RESOURCE);
+      if (in == null)
+         throw new IllegalStateException(RESOURCE + " 를 찾을 수 없습니다.");
+
+      try (BufferedReader reader = new BufferedReader(new InputStreamReader(in, StandardCharsets.UTF_8))) {
+         List<String> words = new ArrayList<>();
+         for (String line; (line = reader.readLine()) != null; ) {
+            String word = line.trim();
+            if (!word.isEmpty())
+               words.add(word);
+         }
+         return new TrieDictionary(words);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+}
@@ -0,0 +1,205 @@
+package effective.code.chapter01.item05;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * LOUDS(Level-Order Unary Degree Sequence)로 인코딩한 읽기 전용 트라이 사전.
+ * 노드를 너비 우선 순서로 번호 매기고, 각 노드의 자식 수를 1 을 자식 수만큼 쓰고 0 으로 끝내는 방식으로 적는다.
+ * 노드 하나당 트리 구조 2비트, 단어 끝 표시 1비트, 글자 16비트만 쓰고 객체 헤더나 참조가 없다.
+ *
+ * <pre>
+ * 노드 v 의 자식 블록: [select0(v - 1) + 1, select0(v))
+ * 첫 자식 번호:        블록 시작 위치 - v + 1
+ * </pre>
+ */
+public class LoudsDictionary implements Dictionary {
+
+   private final BitVector louds;
+   private final BitVector terminals;
+   private final char[] labels;
+   private final int[] frequencies;
+   private final int nodeCount;
+   private final int maxDepth;
+   private final int maxDistance;
+
+   public LoudsDictionary(Collection<String> words) {
+      this(WordFrequencies.count(words), TrieDictionary.DEFAULT_MAX_DISTANCE);
+   }
+
+   public LoudsDictionary(Map<String, Integer> wordFrequencies, int maxDistance) {
+      if (maxDistance < 0)
+         throw new IllegalArgumentException("maxDistance: " + maxDistance);
+      this.maxDistance = maxDistance;
+
+      TreeMap<String, Integer> sorted = new TreeMap<>(wordFrequencies);
+      String[] words = sorted.keySet().toArray(new String[0]);
+
+      BitVector.Builder loudsBits = new BitVector.Builder();
+      BitVector.Builder terminalBits = new BitVector.Builder();
+      StringBuilder labelChars = new StringBuilder().append('\0'); // 루트는 글자가 없다.
+      List<Integer> terminalFrequencies = new ArrayList<>();
+      int depthMax = 0;
+
+      // 노드마다 {단어 범위 시작, 끝, 깊이} 를 너비 우선으로 처리한다.
+      ArrayDeque<int[]> queue = new ArrayDeque<>();
+      queue.add(new int[]{0, words.length, 0});
+      int nodes = 0;
+      while (!queue.isEmpty()) {
+         int[] node = queue.poll();
+         int lo = node[0];
+         int hi = node[1];
+         int depth = node[2];
+         nodes++;
+         depthMax = Math.max(depthMax, depth);
+
+         boolean terminal = lo < hi && words[lo].length() == depth;
+         terminalBits.append(terminal);
+         if (terminal)
+            terminalFrequencies.add(sorted.get(words[lo++]));
+
+         while (lo < hi) {
+            char label = words[lo].charAt(depth);
+            int groupEnd = lo + 1;
+            while (groupEnd < hi && words[groupEnd].charAt(depth) == label)
+               groupEnd++;
+            loudsBits.append(true);
+            labelChars.append(label);
+            queue.add(new int[]{lo, groupEnd, depth + 1});
+            lo = groupEnd;
+         }
+         loudsBits.append(false);
+      }
+
+      this.louds = loudsBits.build();
+      this.terminals = terminalBits.build();
+      this.labels = labelChars.toString().toCharArray();
+      this.frequencies = terminalFrequencies.stream().mapToInt(Integer::intValue).toArray();
+      this.nodeCount = nodes;
+      this.maxDepth = depthMax;
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return word != null && contains(word, 0, word.length());
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      int node = 0;
+      for (int i = start; i < end; i++) {
+         node = child(node, text.charAt(i));
+         if (node < 0)
+            return false;
+      }
+      return terminals.get(node);
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      if (typo == null)
+         return List.of();
+
+      int columns = typo.length() + 1;
+      int[][] rows = new int[maxDepth + 1][columns];
+      for (int i = 0; i < columns; i++)
+         rows[0][i] = i;
+
+      List<String> words = new ArrayList<>();
+      Map<String, int[]> scores = new HashMap<>();
+      char[] path = new char[maxDepth];
+      if (terminals.get(0) && typo.length() <= maxDistance) {
+         words.add("");
+         scores.put("", new int[]{typo.length(), frequencyOf(0)});
+      }
+      walkChildren(0, typo, rows, 1, path, words, scores);
+
+      words.sort(Comparator.<String>comparingInt(w -> scores.get(w)[0])
+            .thenComparing(w -> scores.get(w)[1], Comparator.reverseOrder())
+            .thenComparing(Comparator.naturalOrder()));
+      return words;
+   }
+
+   public int size() {
+      return frequencies.length;
+   }
+
+   public int nodeCount() {
+      return nodeCount;
+   }
+
+   /**
+    * 이 사전이 힙에서 차지하는 바이트 수. (배열 헤더 16바이트 포함)
+    */
+   public long footprintBytes() {
+      return louds.sizeInBytes() + terminals.sizeInBytes() + 16 + 2L * labels.length + 16 + 4L * frequencies.length;
+   }
+
+   /**
+    * 같은 단어를 {@code HashSet<String>} 에 담았을 때의 대략적인 크기. (압축 OOP, Latin-1 문자열 기준)
+    * 엔트리마다 HashMap.Node 32바이트, String 24바이트, 바이트 배열 16바이트 + 길이를 센다.
+    */
+   public static long estimateHashSetBytes(Collection<String> words) {
+      long table = Integer.highestOneBit(Math.max(1, words.size() * 4 / 3) * 2 - 1);
+      long bytes = 16 + 48 + 16 + 4 * table;
+      for (String word : words)
+         bytes += 32 + 24 + ((16L + word.length() + 7) & ~7L);
+      return bytes;
+   }
+
+   private void walkChildren(int node, String typo, int[][] rows, int depth,
+                             char[] path, List<String> words, Map<String, int[]> scores) {
+      long blockStart = node == 0 ? 0 : louds.select0(node - 1) + 1;
+      long blockEnd = louds.select0(node);
+      int firstChild = (int) (blockStart - node + 1);
+      for (int child = firstChild; child < firstChild + (blockEnd - blockStart); child++)
+         walk(child, typo, rows, depth, path, words, scores);
+   }
+
+   private void walk(int node, String typo, int[][] rows, int depth,
+                     char[] path, List<String> words, Map<String, int[]> scores) {
+      char label = labels[node];
+      path[depth - 1] = label;
+      int[] current = rows[depth];
+      int rowMin = EditDistance.fillRow(rows[depth - 1], current, label, typo);
+
+      int distance = current[current.length - 1];
+      if (distance <= maxDistance && terminals.get(node)) {
+         String word = new String(path, 0, depth);
+         words.add(word);
+         scores.put(word, new int[]{distance, frequencyOf(node)});
+      }
+      if (rowMin <= maxDistance && depth < maxDepth)
+         walkChildren(node, typo, rows, depth + 1, path, words, scores);
+   }
+
+   /**
+    * label 을 가진 자식 노드 번호, 없으면 -1. 자식 글자는 정렬되어 있어 이진 탐색한다.
+    */
+   private int child(int node, char label) {
+      long blockStart = node == 0 ? 0 : louds.select0(node - 1) + 1;
+      long blockEnd = louds.select0(node);
+      int low = (int) (blockStart - node + 1);
+      int high = low + (int) (blockEnd - blockStart) - 1;
+      while (low <= high) {
+         int mid = (low + high) >>> 1;
+         if (labels[mid] < label)
+            low = mid + 1;
+         else if (labels[mid] > label)
+            high = mid - 1;
+         else
+            return mid;
+      }
+      return -1;
+   }
+
+   private int frequencyOf(int node) {
+      return frequencies[(int) terminals.rank1(node)];
+   }
+}
@@ -0,0 +1,254 @@
+package effective.code.chapter01.item05;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * {@link DictionaryCompiler} 로 만든 파일을 메모리 매핑해서 쓰는 사전.
+ * 힙에 자료구조를 다시 만들지 않으므로 시작이 빠르고 단어 데이터는 힙 밖에 있다.
+ * 절대 위치로만 읽기 때문에 여러 스레드가 같은 버퍼를 공유해도 안전하다.
+ */
+public class MappedDictionary implements Dictionary {
+
+   private final ByteBuffer buffer;
+   private final int count;
+   private final int maxWordLength;
+   private final int maxDistance;
+   private final int frequenciesAt;
+   private final int offsetsAt;
+   private final int dataAt;
+
+   private MappedDictionary(ByteBuffer buffer, int maxDistance) {
+      if (buffer.limit() < DictionaryCompiler.HEADER_BYTES
+            || buffer.getInt(0) != DictionaryCompiler.MAGIC || buffer.getInt(4) != DictionaryCompiler.VERSION)
+         throw new IllegalArgumentException("사전 파일 형식이 아닙니다.");
+
+      this.buffer = buffer;
+      this.count = buffer.getInt(8);
+      this.maxWordLength = buffer.getInt(12);
+      this.maxDistance = maxDistance;
+      this.frequenciesAt = DictionaryCompiler.HEADER_BYTES;
+      this.offsetsAt = frequenciesAt + 4 * count;
+      this.dataAt = offsetsAt + 4 * (count + 1);
+
+      // 헤더의 개수와 마지막 오프셋이 파일 크기와 맞아야 절대 위치로 읽어도 범위를 벗어나지 않는다.
+      long tableBytes = DictionaryCompiler.HEADER_BYTES + 8L * count + 4;
+      if (count < 0 || maxWordLength < 0 || tableBytes > buffer.limit()
+            || dataAt + (long) buffer.getInt(offsetsAt + 4 * count) != buffer.limit())
+         throw new IllegalArgumentException("잘렸거나 손상된 사전 파일입니다.");
+   }
+
+   public static MappedDictionary open(Path path) {
+      return open(path, TrieDictionary.DEFAULT_MAX_DISTANCE);
+   }
+
+   public static MappedDictionary open(Path path, int maxDistance) {
+      try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+         // 채널을 닫아도 매핑은 버퍼가 수거될 때까지 유지된다.
+         MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+         return new MappedDictionary(mapped, maxDistance);
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return word != null && indexOf(word.getBytes(StandardCharsets.UTF_8)) >= 0;
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      if (typo == null)
+         return List.of();
+
+      int columns = typo.length() + 1;
+      int[][] rows = new int[maxWordLength + 1][columns];
+      for (int i = 0; i < columns; i++)
+         rows[0][i] = i;
+
+      char[] chars = new char[maxWordLength];
+      char[] previousChars = new char[maxWordLength];
+      int[] byteEnds = new int[maxWordLength + 1];
+      int computedDepth = 0;
+      int previousLength = 0;
+
+      List<String> words = new ArrayList<>();
+      List<int[]> scores = new ArrayList<>();
+
+      int i = 0;
+      next:
+      while (i < count) {
+         int length = decode(i, chars, byteEnds);
+         int common = 0;
+         int limit = Math.min(length, previousLength);
+         while (common < limit && chars[common] == previousChars[common])
+            common++;
+
+         // 정렬되어 있으므로 앞 단어와 공유하는 접두사만큼은 편집 거리 행을 다시 계산하지 않는다.
+         for (int depth = Math.min(common, computedDepth) + 1; depth <= length; depth++) {
+            int rowMin = EditDistance.fillRow(rows[depth - 1], rows[depth], chars[depth - 1], typo);
+            if (rowMin > maxDistance && !Character.isHighSurrogate(chars[depth - 1])) {
+               computedDepth = depth;
+               previousLength = swap(chars, previousChars, length);
+               i = skipPrefix(i, byteEnds[depth]);
+               continue next;
+            }
+         }
+
+         int distance = rows[length][columns - 1];
+         if (distance <= maxDistance) {
+            words.add(new String(chars, 0, length));
+            scores.add(new int[]{distance, frequencyAt(i)});
+         }
+         computedDepth = length;
+         previousLength = swap(chars, previousChars, length);
+         i++;
+      }
+
+      List<Integer> order = new ArrayList<>(words.size());
+      for (int k = 0; k < words.size(); k++)
+         order.add(k);
+      order.sort(Comparator.<Integer>comparingInt(k -> scores.get(k)[0])
+            .thenComparing(k -> scores.get(k)[1], Comparator.reverseOrder())
+            .thenComparing(words::get));
+
+      List<String> result = new ArrayList<>(order.size());
+      for (int k : order)
+         result.add(words.get(k));
+      return result;
+   }
+
+   public int frequencyOf(String word) {
+      int index = word == null ? -1 : indexOf(word.getBytes(StandardCharsets.UTF_8));
+      return index < 0 ? 0 : frequencyAt(index);
+   }
+
+   public int size() {
+      return count;
+   }
+
+   private static int swap(char[] chars, char[] previousChars, int length) {
+      System.arraycopy(chars, 0, previousChars, 0, length);
+      return length;
+   }
+
+   /**
+    * index 번째 단어의 앞 prefixBytes 바이트를 공유하는 단어들을 건너뛰고 그다음 위치를 돌려준다.
+    */
+   private int skipPrefix(int index, int prefixBytes) {
+      int prefixAt = start(index);
+      int low = index + 1;
+      int high = count;
+      while (low < high) {
+         int mid = (low + high) >>> 1;
+         if (hasPrefix(mid, prefixAt, prefixBytes))
+            low = mid + 1;
+         else
+            high = mid;
+      }
+      return low;
+   }
+
+   private boolean hasPrefix(int index, int prefixAt, int prefixBytes) {
+      int at = start(index);
+      if (end(index) - at < prefixBytes)
+         return false;
+      for (int i = 0; i < prefixBytes; i++) {
+         if (buffer.get(at + i) != buffer.get(prefixAt + i))
+            return false;
+      }
+      return true;
+   }
+
+   private int indexOf(byte[] word) {
+      int low = 0;
+      int high = count - 1;
+      while (low <= high) {
+         int mid = (low + high) >>> 1;
+         int cmp = compare(mid, word);
+         if (cmp < 0)
+            low = mid + 1;
+         else if (cmp > 0)
+            high = mid - 1;
+         else
+            return mid;
+      }
+      return -1;
+   }
+
+   private int compare(int index, byte[] word) {
+      int at = start(index);
+      int length = end(index) - at;
+      int limit = Math.min(length, word.length);
+      for (int i = 0; i < limit; i++) {
+         int cmp = Byte.toUnsignedInt(buffer.get(at + i)) - Byte.toUnsignedInt(word[i]);
+         if (cmp != 0)
+            return cmp;
+      }
+      return length - word.length;
+   }
+
+   /**
+    * index 번째 단어를 chars 에 풀고 길이를 돌려준다. byteEnds[k] 는 앞 k 글자가 차지하는 바이트 수다.
+    */
+   private int decode(int index, char[] chars, int[] byteEnds) {
+      int at = start(index);
+      int end = end(index);
+      int length = 0;
+      byteEnds[0] = 0;
+      for (int p = at; p < end; ) {
+         int b = Byte.toUnsignedInt(buffer.get(p));
+         int codePoint;
+         int width;
+         if (b < 0x80) {
+            codePoint = b;
+            width = 1;
+         } else if (b < 0xE0) {
+            codePoint = (b & 0x1F) << 6 | continuation(p + 1);
+            width = 2;
+         } else if (b < 0xF0) {
+            codePoint = (b & 0x0F) << 12 | continuation(p + 1) << 6 | continuation(p + 2);
+            width = 3;
+         } else {
+            codePoint = (b & 0x07) << 18 | continuation(p + 1) << 12 | continuation(p + 2) << 6 | continuation(p + 3);
+            width = 4;
+         }
+         p += width;
+         if (Character.isBmpCodePoint(codePoint)) {
+            chars[length++] = (char) codePoint;
+         } else {
+            chars[length++] = Character.highSurrogate(codePoint);
+            byteEnds[length] = p - at;
+            chars[length++] = Character.lowSurrogate(codePoint);
+         }
+         byteEnds[length] = p - at;
+      }
+      return length;
+   }
+
+   private int continuation(int position) {
+      return buffer.get(position) & 0x3F;
+   }
+
+   private int frequencyAt(int index) {
+      return buffer.getInt(frequenciesAt + 4 * index);
+   }
+
+   private int start(int index) {
+      return dataAt + buffer.getInt(offsetsAt + 4 * index);
+   }
+
+   private int end(int index) {
+      return dataAt + buffer.getInt(offsetsAt + 4 * (index + 1));
+   }
+}
@@ -0,0 +1,40 @@
+package effective.code.chapter01.item05;
+
+import java.util.List;
+
+/**
+ * 문서에서 찾은 틀린 단어. offset 은 문서 안의 문자 위치이고, 단어 스트림을 검사했다면 단어 순번이다.
+ */
+public final class Misspelling {
+
+   private final int offset;
+   private final String word;
+   private final List<String> suggestions;
+
+   public Misspelling(int offset, String word, List<String> suggestions) {
+      this.offset = offset;
+      this.word = word;
+      this.suggestions = suggestions == null ? List.of() : List.copyOf(suggestions);
+   }
+
+   public int getOffset() {
+      return offset;
+   }
+
+   public String getWord() {
+      return word;
+   }
+
+   public List<String> getSuggestions() {
+      return suggestions;
+   }
+
+   @Override
+   public String toString() {
+      return "Misspelling{" +
+            "offset=" + offset +
+            ", word='" + word + '\'' +
+            ", suggestions=" + suggestions +
+            '}';
+   }
+}
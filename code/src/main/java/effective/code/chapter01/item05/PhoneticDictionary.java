@@ -0,0 +1,135 @@
+package effective.code.chapter01.item05;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+
+/**
+ * 편집 거리 후보에 발음(Soundex) 색인 후보를 더해 주는 사전 래퍼.
+ * 발음 키별 단어 목록은 로딩할 때 빈도순으로 정렬해 두고, 조회할 때는 앞에서부터 정해진 개수만 본다.
+ * 두 후보 목록은 크기 maxSuggestions 의 힙 하나로 합치므로 결과 크기와 작업량 모두 상한이 있다.
+ */
+public class PhoneticDictionary implements Dictionary {
+
+   public static final int DEFAULT_MAX_SUGGESTIONS = 10;
+   public static final int DEFAULT_MAX_PHONETIC_CANDIDATES = 32;
+
+   private static final String[] NO_WORDS = new String[0];
+
+   private final Dictionary dictionary;
+   private final Map<String, Integer> frequencies;
+   private final Map<String, String[]> index;
+   private final int maxSuggestions;
+   private final int maxPhoneticCandidates;
+
+   public PhoneticDictionary(Dictionary dictionary, Map<String, Integer> wordFrequencies) {
+      this(dictionary, wordFrequencies, DEFAULT_MAX_SUGGESTIONS, DEFAULT_MAX_PHONETIC_CANDIDATES);
+   }
+
+   public PhoneticDictionary(Dictionary dictionary, Map<String, Integer> wordFrequencies,
+                             int maxSuggestions, int maxPhoneticCandidates) {
+      if (maxSuggestions < 1 || maxPhoneticCandidates < 0)
+         throw new IllegalArgumentException("maxSuggestions: " + maxSuggestions + ", maxPhoneticCandidates: " + maxPhoneticCandidates);
+
+      this.dictionary = dictionary;
+      this.frequencies = Map.copyOf(wordFrequencies);
+      this.maxSuggestions = maxSuggestions;
+      this.maxPhoneticCandidates = maxPhoneticCandidates;
+
+      Map<String, List<String>> buckets = new HashMap<>();
+      for (String word : frequencies.keySet()) {
+         String key = Soundex.encode(word);
+         if (!key.isEmpty())
+            buckets.computeIfAbsent(key, k -> new ArrayList<>()).add(word);
+      }
+
+      Comparator<String> byFrequency = Comparator.<String>comparingInt(frequencies::get).reversed()
+            .thenComparing(Comparator.naturalOrder());
+      Map<String, String[]> compact = new HashMap<>(buckets.size() * 4 / 3 + 1);
+      buckets.forEach((key, words) -> {
+         words.sort(byFrequency);
+         compact.put(key, words.toArray(NO_WORDS));
+      });
+      this.index = compact;
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return dictionary.contains(word);
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      return dictionary.contains(text, start, end);
+   }
+
+   /**
+    * 편집 거리로 점수를 매기되, 발음 키가 같은 단어는 0.5 를 빼서 같은 거리라면 앞에 오게 한다.
+    */
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      if (typo == null)
+         return List.of();
+
+      String key = Soundex.encode(typo);
+      int maxDistance = Math.max(1, typo.length());
+      PriorityQueue<Suggestion> heap = new PriorityQueue<>(maxSuggestions + 1, Suggestion.RANKING.reversed());
+      Set<String> seen = new HashSet<>();
+
+      List<String> edited = dictionary.closeWordsTo(typo);
+      if (edited != null) {
+         for (int i = 0; i < edited.size() && i < maxSuggestions; i++)
+            offer(heap, seen, typo, key, edited.get(i), maxDistance);
+      }
+
+      String[] phonetic = key.isEmpty() ? NO_WORDS : index.getOrDefault(key, NO_WORDS);
+      for (int i = 0; i < phonetic.length && i < maxPhoneticCandidates; i++)
+         offer(heap, seen, typo, key, phonetic[i], maxDistance);
+
+      List<String> result = new ArrayList<>(heap.size());
+      while (!heap.isEmpty())
+         result.add(heap.poll().word);
+      Collections.reverse(result);
+      return result;
+   }
+
+   @Override
+   public long version() {
+      return dictionary.version();
+   }
+
+   private void offer(PriorityQueue<Suggestion> heap, Set<String> seen, String typo, String key, String word, int maxDistance) {
+      if (!seen.add(word))
+         return;
+
+      double score = EditDistance.bounded(typo, word, maxDistance);
+      if (key.equals(Soundex.encode(word)))
+         score -= 0.5;
+
+      heap.offer(new Suggestion(word, score, frequencies.getOrDefault(word, 0)));
+      if (heap.size() > maxSuggestions)
+         heap.poll(); // 가장 나쁜 후보를 버린다.
+   }
+
+   private static final class Suggestion {
+      static final Comparator<Suggestion> RANKING = Comparator.<Suggestion>comparingDouble(s -> s.score)
+            .thenComparing(s -> s.frequency, Comparator.reverseOrder())
+            .thenComparing(s -> s.word);
+
+      final String word;
+      final double score;
+      final int frequency;
+
+      Suggestion(String word, double score, int frequency) {
+         this.word = word;
+         this.score = score;
+         this.frequency = frequency;
+      }
+   }
+}
@@ -0,0 +1,43 @@
+package effective.code.chapter01.item05;
+
+/**
+ * American Soundex. 첫 글자와 자음 그룹 번호 세 자리로 발음이 비슷한 단어를 같은 키로 묶는다.
+ */
+public final class Soundex {
+
+   //                                      ABCDEFGHIJKLMNOPQRSTUVWXYZ
+   private static final String CODES = "01230120022455012623010202";
+
+   private Soundex() {
+      throw new AssertionError();
+   }
+
+   /**
+    * 영문자가 하나도 없으면 빈 문자열을 돌려준다.
+    */
+   public static String encode(CharSequence word) {
+      char[] key = new char[4];
+      int length = 0;
+      char previous = 0;
+      for (int i = 0; i < word.length() && length < 4; i++) {
+         char c = Character.toUpperCase(word.charAt(i));
+         if (c < 'A' || c > 'Z')
+            continue;
+
+         char code = CODES.charAt(c - 'A');
+         if (length == 0) {
+            key[length++] = c;
+         } else if (code != '0' && code != previous) {
+            key[length++] = code;
+         }
+         // H, W 는 같은 번호의 자음 사이에 있어도 둘을 가르지 않는다.
+         if (c != 'H' && c != 'W')
+            previous = code;
+      }
+      if (length == 0)
+         return "";
+      while (length < 4)
+         key[length++] = '0';
+      return new String(key);
+   }
+}
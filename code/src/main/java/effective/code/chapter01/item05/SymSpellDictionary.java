@@ -0,0 +1,129 @@
+package effective.code.chapter01.item05;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 대칭 삭제(SymSpell) 방식 사전.
+ * 로딩할 때 모든 단어에서 최대 거리만큼 글자를 지운 변형들을 색인해 두고,
+ * closeWordsTo 에서는 오타의 삭제 변형을 해시로 찾아본 뒤 실제 거리로 검증만 한다.
+ */
+public class SymSpellDictionary implements Dictionary {
+
+   private static final String[] NO_WORDS = new String[0];
+
+   private final int maxEditDistance;
+   private final Map<String, Integer> frequencies;
+   private final Map<String, String[]> deletes;
+
+   public SymSpellDictionary(Collection<String> words, int maxEditDistance) {
+      this(WordFrequencies.count(words), maxEditDistance);
+   }
+
+   public SymSpellDictionary(Map<String, Integer> wordFrequencies, int maxEditDistance) {
+      if (maxEditDistance < 0)
+         throw new IllegalArgumentException("maxEditDistance: " + maxEditDistance);
+      this.maxEditDistance = maxEditDistance;
+      this.frequencies = Map.copyOf(wordFrequencies);
+
+      Map<String, List<String>> index = new HashMap<>();
+      for (String word : frequencies.keySet()) {
+         for (String variant : deletesOf(word))
+            index.computeIfAbsent(variant, k -> new ArrayList<>(1)).add(word);
+      }
+
+      // 로딩이 끝난 색인은 배열로 옮겨 ArrayList 의 여유 용량만큼 메모리를 아낀다.
+      Map<String, String[]> compact = new HashMap<>(index.size() * 4 / 3 + 1);
+      index.forEach((variant, list) -> compact.put(variant, list.toArray(NO_WORDS)));
+      this.deletes = compact;
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return word != null && frequencies.containsKey(word);
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      if (typo == null)
+         return List.of();
+
+      Map<String, Integer> distances = new HashMap<>();
+      for (String variant : deletesOf(typo)) {
+         for (String word : deletes.getOrDefault(variant, NO_WORDS)) {
+            if (distances.containsKey(word))
+               continue;
+            distances.put(word, EditDistance.bounded(typo, word, maxEditDistance));
+         }
+      }
+
+      List<String> result = new ArrayList<>();
+      distances.forEach((word, distance) -> {
+         if (distance <= maxEditDistance)
+            result.add(word);
+      });
+      result.sort(Comparator.<String>comparingInt(distances::get)
+            .thenComparing(frequencies::get, Comparator.reverseOrder())
+            .thenComparing(Comparator.naturalOrder()));
+      return result;
+   }
+
+   public int getMaxEditDistance() {
+      return maxEditDistance;
+   }
+
+   public int indexSize() {
+      return deletes.size();
+   }
+
+   /**
+    * 삭제 색인이 차지하는 힙 크기를 대략적으로 계산한다. (압축 OOP, Latin-1 문자열 기준)
+    * 문자열 24바이트 + 바이트 배열 16바이트 + 길이, 해시맵 엔트리 32바이트, 참조 4바이트로 셈한다.
+    */
+   public long estimatedMemoryBytes() {
+      long bytes = 16L + 4L * tableSize(deletes.size());
+      for (Map.Entry<String, String[]> entry : deletes.entrySet()) {
+         bytes += 32 + stringBytes(entry.getKey());
+         bytes += align(16 + 4L * entry.getValue().length);
+      }
+      for (String word : frequencies.keySet())
+         bytes += 32 + 16 + stringBytes(word); // 단어 자체와 Integer 빈도
+      return bytes;
+   }
+
+   private Set<String> deletesOf(String word) {
+      Set<String> variants = new HashSet<>();
+      variants.add(word);
+      List<String> edge = List.of(word);
+      for (int distance = 1; distance <= maxEditDistance; distance++) {
+         List<String> next = new ArrayList<>();
+         for (String source : edge) {
+            for (int i = 0; i < source.length(); i++) {
+               String variant = source.substring(0, i) + source.substring(i + 1);
+               if (variants.add(variant))
+                  next.add(variant);
+            }
+         }
+         edge = next;
+      }
+      return variants;
+   }
+
+   private static long stringBytes(String s) {
+      return 24 + align(16L + s.length());
+   }
+
+   private static long align(long bytes) {
+      return (bytes + 7) & ~7L;
+   }
+
+   private static long tableSize(int entries) {
+      return Integer.highestOneBit(Math.max(1, entries * 4 / 3) * 2 - 1);
+   }
+}
@@ -0,0 +1,271 @@
+package effective.code.chapter01.item05;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+
+/**
+ * 트라이 기반 사전.
+ * contains 는 단어 길이에 비례하고, closeWordsTo 는 레벤슈타인 오토마톤처럼
+ * 트라이를 따라 내려가며 편집 거리 행을 갱신하다가 최대 거리를 넘는 가지는 잘라낸다.
+ * 생성 이후에는 변경되지 않으므로 여러 스레드에서 동시에 읽어도 안전하다.
+ */
+public class TrieDictionary implements CompletionDictionary {
+
+   public static final int DEFAULT_MAX_DISTANCE = 2;
+   public static final int DEFAULT_MAX_COMPLETIONS = 10;
+
+   private static final char[] NO_LABELS = new char[0];
+   private static final Node[] NO_CHILDREN = new Node[0];
+
+   private static final Comparator<Node> BY_FREQUENCY = Comparator.<Node>comparingInt(n -> n.frequency)
+         .reversed()
+         .thenComparing(n -> n.word);
+
+   private final Node root = new Node();
+   private final int maxDistance;
+   private final int maxCompletions;
+   private final int maxDepth;
+   private final int size;
+
+   public TrieDictionary(Collection<String> words) {
+      this(WordFrequencies.count(words), DEFAULT_MAX_DISTANCE);
+   }
+
+   public TrieDictionary(Map<String, Integer> wordFrequencies, int maxDistance) {
+      this(wordFrequencies, maxDistance, DEFAULT_MAX_COMPLETIONS);
+   }
+
+   public TrieDictionary(Map<String, Integer> wordFrequencies, int maxDistance, int maxCompletions) {
+      if (maxDistance < 0)
+         throw new IllegalArgumentException("maxDistance: " + maxDistance);
+      if (maxCompletions < 0)
+         throw new IllegalArgumentException("maxCompletions: " + maxCompletions);
+      this.maxDistance = maxDistance;
+      this.maxCompletions = maxCompletions;
+
+      int depth = 0;
+      for (Map.Entry<String, Integer> entry : wordFrequencies.entrySet()) {
+         String word = Objects.requireNonNull(entry.getKey());
+         insert(word, entry.getValue());
+         depth = Math.max(depth, word.length());
+      }
+      this.maxDepth = depth;
+      this.size = wordFrequencies.size();
+      collectCompletions(root);
+   }
+
+   public static TrieDictionary of(String... words) {
+      return new TrieDictionary(Arrays.asList(words));
+   }
+
+   @Override
+   public boolean contains(String word) {
+      Node node = find(word);
+      return node != null && node.word != null;
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      Node node = root;
+      for (int i = start; i < end && node != null; i++)
+         node = node.child(text.charAt(i));
+      return node != null && node.word != null;
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      if (typo == null)
+         return List.of();
+
+      int columns = typo.length() + 1;
+      int[][] rows = new int[maxDepth + 1][columns];
+      for (int i = 0; i < columns; i++)
+         rows[0][i] = i;
+
+      List<Candidate> candidates = new ArrayList<>();
+      if (root.word != null && typo.length() <= maxDistance)
+         candidates.add(new Candidate(root.word, typo.length(), root.frequency));
+      for (int i = 0; i < root.labels.length; i++)
+         walk(root.children[i], root.labels[i], typo, rows, 1, candidates);
+
+      candidates.sort(Candidate.RANKING);
+      List<String> result = new ArrayList<>(candidates.size());
+      for (Candidate candidate : candidates)
+         result.add(candidate.word);
+      return result;
+   }
+
+   /**
+    * prefix 로 시작하는 단어를 빈도순으로 limit 개까지 돌려준다.
+    * limit 이 maxCompletions 이하면 노드마다 미리 계산해 둔 목록을 잘라 주기만 한다.
+    */
+   @Override
+   public List<String> complete(String prefix, int limit) {
+      Node node = find(prefix);
+      if (node == null || limit <= 0)
+         return List.of();
+
+      if (limit <= maxCompletions) {
+         int count = Math.min(limit, node.completions.length);
+         List<String> result = new ArrayList<>(count);
+         for (int i = 0; i < count; i++)
+            result.add(node.completions[i].word);
+         return result;
+      }
+
+      // 미리 계산한 것보다 많이 원하면 하위 트리를 훑으면서 크기 limit 의 힙으로 고른다.
+      PriorityQueue<Node> heap = new PriorityQueue<>(limit + 1, BY_FREQUENCY.reversed());
+      Deque<Node> stack = new ArrayDeque<>();
+      stack.push(node);
+      while (!stack.isEmpty()) {
+         Node current = stack.pop();
+         if (current.word != null) {
+            heap.offer(current);
+            if (heap.size() > limit)
+               heap.poll();
+         }
+         for (Node child : current.children)
+            stack.push(child);
+      }
+
+      List<String> result = new ArrayList<>(heap.size());
+      while (!heap.isEmpty())
+         result.add(heap.poll().word);
+      Collections.reverse(result);
+      return result;
+   }
+
+   public int frequencyOf(String word) {
+      Node node = find(word);
+      return node == null || node.word == null ? 0 : node.frequency;
+   }
+
+   public int size() {
+      return size;
+   }
+
+   public int getMaxDistance() {
+      return maxDistance;
+   }
+
+   private void walk(Node node, char label, String typo, int[][] rows, int depth, List<Candidate> candidates) {
+      int[] current = rows[depth];
+      int rowMin = EditDistance.fillRow(rows[depth - 1], current, label, typo);
+
+      int distance = current[current.length - 1];
+      if (node.word != null && distance <= maxDistance)
+         candidates.add(new Candidate(node.word, distance, node.frequency));
+
+      // 이 행의 최솟값이 최대 거리를 넘으면 아래의 어떤 단어도 후보가 될 수 없다.
+      if (rowMin > maxDistance)
+         return;
+
+      for (int i = 0; i < node.labels.length; i++)
+         walk(node.children[i], node.labels[i], typo, rows, depth + 1, candidates);
+   }
+
+   private Node find(String word) {
+      if (word == null)
+         return null;
+
+      Node node = root;
+      for (int i = 0; i < word.length() && node != null; i++)
+         node = node.child(word.charAt(i));
+      return node;
+   }
+
+   private void insert(String word, int frequency) {
+      Node node = root;
+      for (int i = 0; i < word.length(); i++)
+         node = node.childOrCreate(word.charAt(i));
+      node.word = word;
+      node.frequency = frequency;
+   }
+
+   /**
+    * 아래에서부터 각 노드의 상위 maxCompletions 개 단어를 모은다.
+    * 단어 없이 자식이 하나뿐인 노드는 자식의 배열을 그대로 공유한다.
+    */
+   private Node[] collectCompletions(Node node) {
+      Node[][] childCompletions = new Node[node.children.length][];
+      for (int i = 0; i < node.children.length; i++)
+         childCompletions[i] = collectCompletions(node.children[i]);
+
+      if (node.word == null && childCompletions.length == 1) {
+         node.completions = childCompletions[0];
+         return node.completions;
+      }
+
+      List<Node> candidates = new ArrayList<>();
+      if (node.word != null)
+         candidates.add(node);
+      for (Node[] completions : childCompletions)
+         candidates.addAll(Arrays.asList(completions));
+      candidates.sort(BY_FREQUENCY);
+
+      node.completions = candidates.subList(0, Math.min(maxCompletions, candidates.size())).toArray(NO_CHILDREN);
+      return node.completions;
+   }
+
+   /**
+    * 자식을 정렬된 배열로 들고 있어 노드마다 맵을 두는 것보다 작고, 이진 탐색으로 찾는다.
+    */
+   private static final class Node {
+      private char[] labels = NO_LABELS;
+      private Node[] children = NO_CHILDREN;
+      private String word;
+      private int frequency;
+      private Node[] completions = NO_CHILDREN;
+
+      Node child(char label) {
+         int index = Arrays.binarySearch(labels, label);
+         return index < 0 ? null : children[index];
+      }
+
+      Node childOrCreate(char label) {
+         int index = Arrays.binarySearch(labels, label);
+         if (index >= 0)
+            return children[index];
+
+         int insertAt = -(index + 1);
+         char[] newLabels = new char[labels.length + 1];
+         Node[] newChildren = new Node[children.length + 1];
+         System.arraycopy(labels, 0, newLabels, 0, insertAt);
+         System.arraycopy(children, 0, newChildren, 0, insertAt);
+         System.arraycopy(labels, insertAt, newLabels, insertAt + 1, labels.length - insertAt);
+         System.arraycopy(children, insertAt, newChildren, insertAt + 1, children.length - insertAt);
+
+         Node created = new Node();
+         newLabels[insertAt] = label;
+         newChildren[insertAt] = created;
+         labels = newLabels;
+         children = newChildren;
+         return created;
+      }
+   }
+
+   private static final class Candidate {
+      static final Comparator<Candidate> RANKING = Comparator.<Candidate>comparingInt(c -> c.distance)
+            .thenComparing(c -> c.frequency, Comparator.reverseOrder())
+            .thenComparing(c -> c.word);
+
+      final String word;
+      final int distance;
+      final int frequency;
+
+      Candidate(String word, int distance, int frequency) {
+         this.word = word;
+         this.distance = distance;
+         this.frequency = frequency;
+      }
+   }
+}
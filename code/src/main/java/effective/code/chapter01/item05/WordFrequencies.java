@@ -0,0 +1,25 @@
+package effective.code.chapter01.item05;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 빈도 없이 단어 목록만 받은 사전들이 같이 쓰는 도우미.
+ */
+final class WordFrequencies {
+
+   private WordFrequencies() {
+      throw new AssertionError();
+   }
+
+   /**
+    * 단어마다 나온 횟수를 빈도로 센다.
+    */
+   static Map<String, Integer> count(Collection<String> words) {
+      Map<String, Integer> frequencies = new HashMap<>();
+      for (String word : words)
+         frequencies.merge(word, 1, Integer::sum);
+      return frequencies;
+   }
+}
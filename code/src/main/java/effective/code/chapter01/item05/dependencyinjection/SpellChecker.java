@@ -2,9 +2,14 @@ package effective.code.chapter01.item05.dependencyinjection;
 
 
 import effective.code.chapter01.item05.Dictionary;
+import effective.code.chapter01.item05.DocumentChecker;
+import effective.code.chapter01.item05.Misspelling;
 
+import java.io.IOException;
+import java.io.Reader;
 import java.util.List;
 import java.util.function.Supplier;
+import java.util.stream.Stream;
 
 public class SpellChecker {
 
@@ -35,4 +40,16 @@ public class SpellChecker {
       // TODO 여기 SpellChecker 코드
       return dictionary.closeWordsTo(typo);
    }
+
+   public List<Misspelling> check(CharSequence text, boolean withSuggestions) {
+      return new DocumentChecker(dictionary).check(text, withSuggestions);
+   }
+
+   public List<Misspelling> check(Reader reader, boolean withSuggestions) throws IOException {
+      return new DocumentChecker(dictionary).check(reader, withSuggestions);
+   }
+
+   public List<Misspelling> check(Stream<String> words, boolean withSuggestions) {
+      return new DocumentChecker(dictionary).check(words, withSuggestions);
+   }
 }
@@ -0,0 +1,130 @@
+package effective.code.chapter01.item05.dependencyinjection;
+
+import effective.code.chapter01.item05.Dictionary;
+import effective.code.chapter01.item05.TrieDictionary;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 큰 사전을 백그라운드에서 읽어 들이는 사전.
+ * 만드는 즉시 반환되므로 {@code new SpellChecker(() -> warmingDictionary)} 처럼 넘기면 생성자가 막히지 않는다.
+ * 다 읽기 전에 호출되면 만든 때로부터 maxWait 가 지날 때까지만 기다리고, 그래도 안 되면 작은 기본 사전으로 답한다.
+ * 그 뒤로는 기다리지 않고 다 읽을 때까지 기본 사전으로 답한다.
+ */
+public class WarmingDictionary implements Dictionary {
+
+   private static final List<String> CORE_WORDS = List.of(
+         "a", "about", "after", "all", "also", "an", "and", "any", "are", "as", "at", "be", "because", "been",
+         "but", "by", "can", "come", "could", "day", "do", "even", "first", "for", "from", "get", "give", "go",
+         "good", "have", "he", "her", "him", "his", "how", "i", "if", "in", "into", "is", "it", "its", "just",
+         "know", "like", "look", "make", "me", "most", "my", "new", "no", "not", "now", "of", "on", "one", "only",
+         "or", "other", "our", "out", "over", "people", "say", "see", "she", "so", "some", "take", "than", "that",
+         "the", "their", "them", "then", "there", "these", "they", "think", "this", "time", "to", "two", "up",
+         "us", "use", "want", "way", "we", "well", "what", "when", "which", "who", "will", "with", "work",
+         "would", "year", "you", "your");
+
+   private final CompletableFuture<Dictionary> loading;
+   private final Dictionary fallback;
+   private final long waitDeadline;
+   private volatile Dictionary loaded;
+
+   private final LongAdder waitNanos = new LongAdder();
+   private final LongAdder waits = new LongAdder();
+   private final LongAdder fallbacks = new LongAdder();
+
+   public WarmingDictionary(Supplier<Dictionary> dictionaryFactory, Executor executor, Duration maxWait) {
+      this(dictionaryFactory, executor, maxWait, coreDictionary());
+   }
+
+   public WarmingDictionary(Supplier<Dictionary> dictionaryFactory, Executor executor, Duration maxWait, Dictionary fallback) {
+      this.fallback = fallback;
+      this.waitDeadline = System.nanoTime() + maxWait.toNanos();
+      // whenLoaded 를 기다린 쪽이 곧바로 본 사전을 보도록 future 를 완료하기 전에 담아 둔다.
+      this.loading = CompletableFuture.supplyAsync(() -> loaded = dictionaryFactory.get(), executor);
+   }
+
+   public static Dictionary coreDictionary() {
+      return new TrieDictionary(CORE_WORDS);
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return dictionary().contains(word);
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      return dictionary().contains(text, start, end);
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      return dictionary().closeWordsTo(typo);
+   }
+
+   @Override
+   public long version() {
+      return loaded == null ? 0 : 1; // 본 사전으로 넘어가면 캐시가 기본 사전의 결과를 버리도록 한다.
+   }
+
+   public boolean isLoaded() {
+      return loaded != null;
+   }
+
+   public CompletableFuture<Dictionary> whenLoaded() {
+      return loading.copy();
+   }
+
+   public Duration getTotalWaitTime() {
+      return Duration.ofNanos(waitNanos.sum());
+   }
+
+   public long getWaitCount() {
+      return waits.sum();
+   }
+
+   public long getFallbackCount() {
+      return fallbacks.sum();
+   }
+
+   private Dictionary dictionary() {
+      Dictionary dictionary = loaded;
+      if (dictionary != null)
+         return dictionary;
+
+      long start = System.nanoTime();
+      long remaining = waitDeadline - start;
+      if (remaining <= 0) {
+         fallbacks.increment();
+         return fallback;
+      }
+
+      waits.increment();
+      try {
+         dictionary = loading.get(remaining, TimeUnit.NANOSECONDS);
+         loaded = dictionary;
+         return dictionary;
+      } catch (TimeoutException e) {
+         fallbacks.increment();
+         return fallback;
+      } catch (ExecutionException e) {
+         // 본 사전을 읽지 못했다면 기본 사전으로라도 계속 동작한다.
+         fallbacks.increment();
+         return fallback;
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         fallbacks.increment();
+         return fallback;
+      } finally {
+         waitNanos.add(System.nanoTime() - start);
+      }
+   }
+}
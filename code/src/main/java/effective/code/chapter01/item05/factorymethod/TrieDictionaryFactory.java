@@ -0,0 +1,21 @@
+package effective.code.chapter01.item05.factorymethod;
+
+import effective.code.chapter01.item05.Dictionary;
+import effective.code.chapter01.item05.TrieDictionary;
+
+import java.util.Collection;
+import java.util.List;
+
+public class TrieDictionaryFactory implements DictionaryFactory {
+
+   private final Collection<String> words;
+
+   public TrieDictionaryFactory(Collection<String> words) {
+      this.words = List.copyOf(words);
+   }
+
+   @Override
+   public Dictionary getDictionary() {
+      return new TrieDictionary(words);
+   }
+}
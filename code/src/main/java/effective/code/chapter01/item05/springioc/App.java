@@ -1,5 +1,6 @@
 package effective.code.chapter01.item05.springioc;
 
+import effective.code.chapter01.item05.TrieDictionary;
 import org.springframework.context.ApplicationContext;
 import org.springframework.context.annotation.AnnotationConfigApplicationContext;
 
@@ -10,6 +11,11 @@ public class App {
       SpellChecker spellChecker = applicationContext.getBean(SpellChecker.class);
       spellChecker.isValid("test");
 
+      // 컨텍스트를 다시 띄우지 않고 사전만 교체
+      DictionaryHolder dictionaryHolder = applicationContext.getBean(DictionaryHolder.class);
+      dictionaryHolder.reload(() -> TrieDictionary.of("test")).join();
+      spellChecker.isValid("test");
+
       SpellChecker spellChecker1 = new SpellChecker(new SpringDictionary()); // 스프링이 관리하지 않는 객체
    }
 }
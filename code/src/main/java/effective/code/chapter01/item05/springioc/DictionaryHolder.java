@@ -0,0 +1,86 @@
+package effective.code.chapter01.item05.springioc;
+
+import effective.code.chapter01.item05.Dictionary;
+import org.springframework.context.annotation.Primary;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+/**
+ * 사전을 통째로 갈아끼울 수 있게 감싸는 빈.
+ * 새 사전은 백그라운드 스레드에서 만든 뒤 volatile 필드 하나로 발행하므로,
+ * 읽는 쪽은 잠금 없이 항상 완성된 사전 하나만 보고 교체 중에도 기다리지 않는다.
+ */
+@Primary
+@Component
+public class DictionaryHolder implements Dictionary, AutoCloseable {
+
+   private final ExecutorService loader = Executors.newSingleThreadExecutor(r -> {
+      Thread thread = new Thread(r, "dictionary-loader");
+      thread.setDaemon(true);
+      return thread;
+   });
+
+   private volatile Snapshot snapshot;
+
+   public DictionaryHolder(SpringDictionary initial) {
+      this.snapshot = new Snapshot(initial, 1);
+   }
+
+   /**
+    * 지금 쓰이는 사전. 여러 번 조회하는 동안 같은 사전을 봐야 한다면 이 값을 잡아두고 쓴다.
+    */
+   public Dictionary current() {
+      return snapshot.dictionary;
+   }
+
+   /**
+    * 새 사전을 백그라운드에서 만들고 다 만들어지면 발행한다. 교체 요청은 들어온 순서대로 처리된다.
+    */
+   public CompletableFuture<Dictionary> reload(Supplier<? extends Dictionary> factory) {
+      return CompletableFuture.supplyAsync(() -> {
+         Dictionary dictionary = factory.get();
+         snapshot = new Snapshot(dictionary, snapshot.version + 1); // 단일 스레드에서만 쓰므로 경쟁이 없다.
+         return dictionary;
+      }, loader);
+   }
+
+   @Override
+   public boolean contains(String word) {
+      return snapshot.dictionary.contains(word);
+   }
+
+   @Override
+   public boolean contains(CharSequence text, int start, int end) {
+      return snapshot.dictionary.contains(text, start, end);
+   }
+
+   @Override
+   public List<String> closeWordsTo(String typo) {
+      return snapshot.dictionary.closeWordsTo(typo);
+   }
+
+   @Override
+   public long version() {
+      return snapshot.version;
+   }
+
+   @Override
+   public void close() {
+      loader.shutdownNow();
+   }
+
+   private static final class Snapshot {
+      final Dictionary dictionary;
+      final long version;
+
+      Snapshot(Dictionary dictionary, long version) {
+         this.dictionary = dictionary;
+         this.version = version;
+      }
+   }
+}
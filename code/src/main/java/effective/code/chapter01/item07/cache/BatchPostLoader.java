@@ -0,0 +1,13 @@
+package effective.code.chapter01.item07.cache;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 캐시에 없는 글 여러 개를 저장소에서 한 번에 읽어온다. 없는 글은 결과에서 빠진다.
+ */
+@FunctionalInterface
+public interface BatchPostLoader {
+
+   Map<CacheKey, Post> loadAll(Set<CacheKey> keys);
+}
@@ -0,0 +1,1258 @@
+package effective.code.chapter01.item07.cache;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Hashtable;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * 크기(또는 무게) 상한이 있는 동시성 캐시. W-TinyLFU 정책으로 내보낸다.
+ *
+ * <ul>
+ *    <li>데이터는 ConcurrentHashMap 에 있어서 읽기는 잠그지 않는다.</li>
+ *    <li>읽기 기록은 유실을 허용하는 링 버퍼에 쌓았다가, 정책 잠금을 얻은 스레드가 한 번에 반영한다.</li>
+ *    <li>새 항목은 작은 윈도 LRU 에 들어가고, 넘치면 본 영역(probation/protected SLRU)에 후보로 들어간다.
+ *    본 영역이 넘치면 후보와 probation 의 가장 오래된 항목 중 빈도 스케치 값이 낮은 쪽을 내보낸다.
+ *    그래서 한 번 훑고 지나가는 키들이 자주 쓰이는 키를 밀어내지 못한다.</li>
+ *    <li>만료 시간은 모든 항목에 같으므로 쓰기 순서 큐와 접근 순서 큐의 앞쪽만 보면 만료된 항목을 찾을 수 있다.
+ *    맵 전체를 훑지 않고, 쓰기/정리 때나 스케줄러가 주기적으로 앞에서부터 지운다.</li>
+ *    <li>refreshAfterWrite 를 지나 읽힌 항목은 백그라운드에서 다시 읽는다. 다시 읽는 동안에는 옛 값을 돌려준다.
+ *    자주 읽히는 항목만 다시 읽히므로, 만료 시간보다 짧게 잡으면 인기 항목은 만료로 놓치는 일이 없다.</li>
+ *    <li>통계는 LongAdder 와 히스토그램으로 세고, registerMBean 으로 JMX 에 내보낸다.
+ *    로드와 내보내기는 JFR 이벤트로도 남으므로 녹화에서 GC 일시 정지와 나란히 볼 수 있다.</li>
+ *    <li>softOverflow 를 켜면 크기 때문에 밀려난 항목은 SoftReference 로 한 번 더 들고 있다가, 다시 찾으면 본 영역으로 올린다.</li>
+ * </ul>
+ */
+public class BoundedCache<K, V> implements AutoCloseable {
+
+   private static final int READ_BUFFER_SIZE = 128;
+   private static final int READ_BUFFER_MASK = READ_BUFFER_SIZE - 1;
+   private static final int READ_DRAIN_THRESHOLD = 32;
+   private static final int REFRESH_THREADS = 2;
+   private static final int REFRESH_QUEUE_CAPACITY = 256;
+
+   private final ConcurrentHashMap<K, Node<K, V>> data = new ConcurrentHashMap<>();
+   private final ConcurrentHashMap<K, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+   private final ReentrantLock evictionLock = new ReentrantLock();
+   private final Weigher<? super K, ? super V> weigher;
+   private final CacheStats stats = new CacheStats();
+   private final Ticker ticker;
+   private final long expireAfterWriteNanos;
+   private final long expireAfterAccessNanos;
+   private final long loadTimeoutNanos;
+   private final long refreshAfterWriteNanos;
+   private final Executor refreshExecutor;
+   private final ExecutorService ownedRefreshExecutor;
+   private final ScheduledFuture<?> sweeper;
+   private final SoftTier<K, V> softTier;
+   private final String name;
+   private final ObjectName objectName;
+
+   private final long maximum;
+   private final long windowMaximum;
+   private final long protectedMaximum;
+   private final FrequencySketch<K> sketch;
+   private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+   private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+   private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+   private final WriteOrderDeque<K, V> writeOrder = new WriteOrderDeque<>();
+   private long windowWeight;
+   private long protectedWeight;
+   private long weightedSize;
+
+   private final AtomicReferenceArray<Node<K, V>> readBuffer = new AtomicReferenceArray<>(READ_BUFFER_SIZE);
+   private final AtomicLong readBufferWrites = new AtomicLong();
+   private volatile long readBufferReads;
+
+   private Map<K, V> mapView;
+
+   private BoundedCache(Builder<K, V> builder) {
+      this.maximum = builder.maximumWeight;
+      this.weigher = builder.weigher;
+      this.windowMaximum = Math.max(1, maximum / 100);
+      this.protectedMaximum = (long) ((maximum - windowMaximum) * 0.8);
+      // 무게 상한이면 항목 수를 알 수 없으므로 스케치를 작게 시작해서 항목이 늘 때 키운다.
+      this.sketch = new FrequencySketch<>(builder.weighted ? 0 : maximum);
+      this.ticker = builder.ticker;
+      this.expireAfterWriteNanos = builder.expireAfterWriteNanos;
+      this.expireAfterAccessNanos = builder.expireAfterAccessNanos;
+      this.loadTimeoutNanos = builder.loadTimeoutNanos;
+      this.softTier = builder.softOverflow ? new SoftTier<>() : null;
+      this.refreshAfterWriteNanos = builder.refreshAfterWriteNanos;
+      if (refreshAfterWriteNanos != Long.MAX_VALUE && builder.refreshExecutor == null) {
+         this.ownedRefreshExecutor = newRefreshExecutor();
+         this.refreshExecutor = ownedRefreshExecutor;
+      } else {
+         this.ownedRefreshExecutor = null;
+         this.refreshExecutor = builder.refreshExecutor;
+      }
+
+      this.name = builder.name;
+      this.objectName = builder.registerMBean ? registerMBean() : null;
+
+      long shortest = Math.min(expireAfterWriteNanos, expireAfterAccessNanos);
+      if (builder.scheduler != null && shortest != Long.MAX_VALUE) {
+         long period = Math.max(TimeUnit.MILLISECONDS.toNanos(1), shortest / 2);
+         this.sweeper = builder.scheduler.scheduleWithFixedDelay(this::cleanUp, period, period, TimeUnit.NANOSECONDS);
+      } else {
+         this.sweeper = null;
+      }
+   }
+
+   private ObjectName registerMBean() {
+      try {
+         ObjectName objectName = new ObjectName("effective.code.cache", new Hashtable<>(Map.of("type", "BoundedCache", "name", ObjectName.quote(name))));
+         ManagementFactory.getPlatformMBeanServer().registerMBean(new CacheMetrics(this), objectName);
+         return objectName;
+      } catch (JMException e) {
+         throw new IllegalStateException("캐시 MBean 을 등록하지 못했습니다: " + name, e);
+      }
+   }
+
+   public static <K, V> Builder<K, V> builder() {
+      return new Builder<>();
+   }
+
+   /**
+    * soft 영역에 살아 있으면 원래 쓰기 시각을 그대로 이어받아 본 영역으로 올린다.
+    */
+   private Node<K, V> promote(K key, long now) {
+      if (softTier == null)
+         return null;
+      SoftTier.ValueReference<K, V> reference = softTier.remove(key);
+      V value = reference == null ? null : reference.get();
+      if (value == null || now - reference.writeTime >= expireAfterWriteNanos)
+         return null;
+
+      int weight = weigh(key, value);
+      evictionLock.lock();
+      try {
+         drainReadBuffer();
+         Node<K, V> node = data.get(key);
+         if (node == null)
+            putLocked(key, value, weight, reference.writeTime, now);
+         evict();
+      } finally {
+         evictionLock.unlock();
+      }
+      Node<K, V> node = data.get(key);
+      return node == null || isExpired(node, now) ? null : node;
+   }
+
+   /**
+    * 다시 읽을 스레드를 정해 둔 만큼만 두고, 큐가 차면 다시 읽기를 건너뛴다.
+    */
+   private static ExecutorService newRefreshExecutor() {
+      ThreadPoolExecutor executor = new ThreadPoolExecutor(REFRESH_THREADS, REFRESH_THREADS, 30, TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(REFRESH_QUEUE_CAPACITY), runnable -> {
+               Thread thread = new Thread(runnable, "bounded-cache-refresh");
+               thread.setDaemon(true);
+               return thread;
+            });
+      executor.allowCoreThreadTimeOut(true);
+      return executor;
+   }
+
+   public V getIfPresent(K key) {
+      Node<K, V> node = getNode(key, ticker.read());
+      return node == null ? null : node.value;
+   }
+
+   private Node<K, V> getNode(K key, long now) {
+      Node<K, V> node = data.get(key);
+      if (node == null || isExpired(node, now)) {
+         node = node == null ? promote(key, now) : null;
+         if (node == null) {
+            stats.recordMiss();
+            return null;
+         }
+         stats.recordSoftHit();
+      }
+      stats.recordHit();
+      if (expireAfterAccessNanos != Long.MAX_VALUE)
+         node.accessTime = now;
+      afterRead(node);
+      return node;
+   }
+
+   /**
+    * 없으면 loader 로 읽어서 담는다. loader 가 null 을 돌려주면 담지 않는다.
+    * 같은 키를 여러 스레드가 동시에 놓치면 한 스레드만 읽고, 나머지는 그 결과를 loadTimeout 만큼만 기다린다.
+    * 찾은 항목이 refreshAfterWrite 를 지났으면 옛 값을 돌려주고 loader 로 다시 읽기를 맡긴다.
+    */
+   public V get(K key, Function<? super K, ? extends V> loader) {
+      long now = ticker.read();
+      Node<K, V> node = getNode(key, now);
+      if (node != null) {
+         V value = node.value;
+         if (now - node.writeTime >= refreshAfterWriteNanos)
+            refresh(Map.of(key, node), keys -> {
+               V reloaded = loader.apply(key);
+               return reloaded == null ? Map.of() : Map.of(key, reloaded);
+            });
+         return value;
+      }
+
+      CompletableFuture<V> created = new CompletableFuture<>();
+      CompletableFuture<V> inFlight = loading.putIfAbsent(key, created);
+      if (inFlight != null) {
+         stats.recordCoalescedLoad();
+         return await(key, inFlight);
+      }
+
+      try {
+         // 놓친 뒤 자리를 잡기 전에 다른 스레드가 읽기를 끝냈을 수 있다.
+         V value = peek(key);
+         if (value == null)
+            value = load(key, loader);
+         created.complete(value);
+         return value;
+      } catch (RuntimeException | Error e) {
+         created.completeExceptionally(e);
+         throw e;
+      } finally {
+         loading.remove(key, created);
+      }
+   }
+
+   /**
+    * 여러 키를 한 번에 찾는다. 없는 키들은 batchLoader 를 한 번만 불러 읽고, 읽은 값은 한꺼번에 담는다.
+    * 다른 스레드가 이미 읽고 있는 키는 다시 읽지 않고 그 결과를 기다린다.
+    * 결과는 요청한 순서를 따르며, 읽어도 없는 키는 빠진다. refreshAfterWrite 를 지난 항목들은 한 묶음으로 다시 읽는다.
+    */
+   public Map<K, V> getAll(Collection<? extends K> keys, Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> batchLoader) {
+      long now = ticker.read();
+      Map<K, V> found = new HashMap<>();
+      Map<K, Node<K, V>> stale = new HashMap<>();
+      Map<K, CompletableFuture<V>> mine = new HashMap<>();
+      Map<K, CompletableFuture<V>> others = new HashMap<>();
+      for (K key : keys) {
+         if (found.containsKey(key) || mine.containsKey(key) || others.containsKey(key))
+            continue;
+
+         Node<K, V> node = getNode(key, now);
+         if (node != null) {
+            found.put(key, node.value);
+            if (now - node.writeTime >= refreshAfterWriteNanos)
+               stale.put(key, node);
+            continue;
+         }
+         CompletableFuture<V> created = new CompletableFuture<>();
+         CompletableFuture<V> inFlight = loading.putIfAbsent(key, created);
+         if (inFlight == null) {
+            mine.put(key, created);
+         } else {
+            stats.recordCoalescedLoad();
+            others.put(key, inFlight);
+         }
+      }
+
+      if (!stale.isEmpty())
+         refresh(stale, batchLoader);
+      if (!mine.isEmpty())
+         loadAll(mine, batchLoader, found);
+      others.forEach((key, inFlight) -> found.put(key, await(key, inFlight)));
+
+      Map<K, V> result = new LinkedHashMap<>();
+      for (K key : keys) {
+         V value = found.get(key);
+         if (value != null)
+            result.put(key, value);
+      }
+      return result;
+   }
+
+   private void loadAll(Map<K, CompletableFuture<V>> mine,
+                        Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> batchLoader,
+                        Map<K, V> found) {
+      try {
+         Set<K> missing = new HashSet<>();
+         for (K key : mine.keySet()) {
+            V value = peek(key);
+            if (value != null)
+               found.put(key, value);
+            else
+               missing.add(key);
+         }
+
+         Map<K, V> loaded = new HashMap<>();
+         if (!missing.isEmpty()) {
+            CacheLoadEvent event = new CacheLoadEvent();
+            event.begin();
+            long start = ticker.read();
+            try {
+               Map<? extends K, ? extends V> batch = batchLoader.apply(Collections.unmodifiableSet(missing));
+               if (batch != null) {
+                  batch.forEach((key, value) -> {
+                     if (value != null && missing.contains(key))
+                        loaded.put(key, value);
+                  });
+               }
+            } catch (RuntimeException | Error e) {
+               recordLoad(event, start, null, missing.size(), false, false);
+               throw e;
+            }
+            recordLoad(event, start, null, missing.size(), true, false);
+            putLoaded(loaded, start);
+            found.putAll(loaded);
+         }
+         mine.forEach((key, created) -> created.complete(found.get(key)));
+      } catch (RuntimeException | Error e) {
+         mine.values().forEach(created -> created.completeExceptionally(e));
+         throw e;
+      } finally {
+         mine.forEach(loading::remove);
+      }
+   }
+
+   /**
+    * 이미 읽고 있는 키는 빼고 다시 읽기를 맡긴다. 그동안 이 키를 놓친 요청은 다시 읽은 결과를 기다린다.
+    */
+   private void refresh(Map<K, Node<K, V>> stale, Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> batchLoader) {
+      Map<K, Refresh<K, V>> targets = new HashMap<>();
+      stale.forEach((key, node) -> {
+         CompletableFuture<V> created = new CompletableFuture<>();
+         if (loading.putIfAbsent(key, created) == null)
+            targets.put(key, new Refresh<>(node, created));
+      });
+      if (targets.isEmpty())
+         return;
+
+      try {
+         refreshExecutor.execute(() -> reload(targets, batchLoader));
+         stats.recordRefreshScheduled(targets.size());
+      } catch (RejectedExecutionException e) {
+         stats.recordRefreshRejected(targets.size());
+         targets.forEach((key, target) -> {
+            target.future.complete(target.node.value);
+            loading.remove(key, target.future);
+         });
+      }
+   }
+
+   private void reload(Map<K, Refresh<K, V>> targets, Function<? super Set<K>, ? extends Map<? extends K, ? extends V>> batchLoader) {
+      try {
+         CacheLoadEvent event = new CacheLoadEvent();
+         event.begin();
+         long start = ticker.read();
+         Map<K, V> loaded = new HashMap<>();
+         Map<K, Integer> weights = new HashMap<>();
+         try {
+            Map<? extends K, ? extends V> batch = batchLoader.apply(Collections.unmodifiableSet(targets.keySet()));
+            if (batch != null) {
+               batch.forEach((key, value) -> {
+                  if (value != null && targets.containsKey(key)) {
+                     weights.put(key, weigh(key, value));
+                     loaded.put(key, value);
+                  }
+               });
+            }
+         } catch (RuntimeException | Error e) {
+            // 옛 값은 그대로 두고, 다음에 읽힐 때 다시 시도한다.
+            recordLoad(event, start, null, targets.size(), false, true);
+            stats.recordRefreshFailure(targets.size());
+            targets.values().forEach(target -> target.future.completeExceptionally(e));
+            return;
+         }
+         recordLoad(event, start, null, targets.size(), true, true);
+
+         long now = ticker.read();
+         evictionLock.lock();
+         try {
+            drainReadBuffer();
+            targets.forEach((key, target) -> {
+               // 그사이 새 값이 쓰였거나 지워졌으면 덮어쓰지 않는다.
+               if (data.get(key) != target.node || target.node.writeTime != target.writeTime)
+                  return;
+               V value = loaded.get(key);
+               if (value != null) {
+                  putLocked(key, value, weights.get(key), now, now);
+               } else {
+                  data.remove(key, target.node);
+                  unlink(target.node);
+               }
+            });
+            expireEntries(now);
+            evict();
+         } finally {
+            evictionLock.unlock();
+         }
+         stats.recordRefreshSuccess(targets.size());
+         targets.forEach((key, target) -> target.future.complete(loaded.get(key)));
+      } finally {
+         targets.forEach((key, target) -> loading.remove(key, target.future));
+      }
+   }
+
+   private V load(K key, Function<? super K, ? extends V> loader) {
+      CacheLoadEvent event = new CacheLoadEvent();
+      event.begin();
+      long start = ticker.read();
+      V value;
+      try {
+         value = loader.apply(key);
+      } catch (RuntimeException | Error e) {
+         recordLoad(event, start, key, 1, false, false);
+         throw e;
+      }
+      recordLoad(event, start, key, 1, true, false);
+      if (value == null)
+         return null;
+
+      Map<K, V> loaded = new HashMap<>();
+      loaded.put(key, value);
+      putLoaded(loaded, start);
+      return loaded.get(key);
+   }
+
+   /**
+    * 읽어온 값을 담는다. 읽는 동안(loadStart 이후) 다른 스레드가 put 으로 새 값을 썼으면 덮어쓰지 않고,
+    * loaded 의 값을 그 새 값으로 바꿔 둔다.
+    */
+   private void putLoaded(Map<K, V> loaded, long loadStart) {
+      Map<K, Integer> weights = new HashMap<>();
+      loaded.forEach((key, value) -> weights.put(key, weigh(key, value)));
+
+      long now = ticker.read();
+      evictionLock.lock();
+      try {
+         drainReadBuffer();
+         for (Map.Entry<K, V> entry : loaded.entrySet()) {
+            Node<K, V> node = data.get(entry.getKey());
+            if (node != null && node.writeTime >= loadStart && !isExpired(node, now))
+               entry.setValue(node.value);
+            else
+               putLocked(entry.getKey(), entry.getValue(), weights.get(entry.getKey()), now, now);
+         }
+         expireEntries(now);
+         evict();
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   /**
+    * 한 키만 읽었으면 key 를, 묶음이면 null 을 넘긴다. 키 문자열은 JFR 이 이벤트를 받을 때만 만든다.
+    */
+   private void recordLoad(CacheLoadEvent event, long start, K key, int keyCount, boolean success, boolean refresh) {
+      long elapsed = ticker.read() - start;
+      if (success)
+         stats.recordLoadSuccess(elapsed);
+      else
+         stats.recordLoadFailure(elapsed);
+
+      event.end();
+      if (event.shouldCommit()) {
+         event.cache = name;
+         event.key = key == null ? null : String.valueOf(key);
+         event.keyCount = keyCount;
+         event.success = success;
+         event.refresh = refresh;
+         event.commit();
+      }
+   }
+
+   private V await(K key, CompletableFuture<V> inFlight) {
+      try {
+         return inFlight.get(loadTimeoutNanos, TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+         throw new CacheLoadException("다른 스레드의 읽기를 기다리다 시간이 초과되었습니다: " + key, e);
+      } catch (ExecutionException e) {
+         throw new CacheLoadException("읽기에 실패했습니다: " + key, e.getCause());
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new CacheLoadException("읽기를 기다리다 인터럽트되었습니다: " + key, e);
+      }
+   }
+
+   /**
+    * 통계와 정책에 반영하지 않고 살아 있는 값만 들여다본다.
+    */
+   private V peek(K key) {
+      Node<K, V> node = data.get(key);
+      return node == null || isExpired(node, ticker.read()) ? null : node.value;
+   }
+
+   public void put(K key, V value) {
+      put(key, value, Duration.ZERO);
+   }
+
+   /**
+    * 쓰인 지 age 만큼 지난 값으로 담는다. 만료와 다시 읽기는 원래 쓰인 시각부터 센다. 이미 만료됐으면 담지 않고 false 를 돌려준다.
+    */
+   public boolean put(K key, V value, Duration age) {
+      int weight = weigh(key, value);
+      long now = ticker.read();
+      long writeTime = now - Math.max(0, age.toNanos());
+      if (now - writeTime >= expireAfterWriteNanos)
+         return false;
+
+      evictionLock.lock();
+      try {
+         drainReadBuffer();
+         putLocked(key, value, weight, writeTime, now);
+         expireEntries(now);
+         evict();
+      } finally {
+         evictionLock.unlock();
+      }
+      return true;
+   }
+
+   /**
+    * 모두 한 번의 잠금 안에서 담는다. 만료와 내보내기는 묶음을 다 담은 뒤에 한 번만 한다.
+    */
+   public void putAll(Map<? extends K, ? extends V> entries) {
+      Map<K, Integer> weights = new HashMap<>();
+      entries.forEach((key, value) -> weights.put(key, weigh(key, value)));
+
+      long now = ticker.read();
+      evictionLock.lock();
+      try {
+         drainReadBuffer();
+         entries.forEach((key, value) -> putLocked(key, value, weights.get(key), now, now));
+         expireEntries(now);
+         evict();
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   private int weigh(K key, V value) {
+      Objects.requireNonNull(key);
+      Objects.requireNonNull(value);
+      int weight = weigher.weigh(key, value);
+      if (weight < 0)
+         throw new IllegalArgumentException("weight: " + weight);
+      return weight;
+   }
+
+   /**
+    * writeTime 이 now 보다 이르면 쓰기 순서 큐에서 제자리보다 뒤에 놓인다.
+    * 그런 항목도 읽을 때 isExpired 로 걸러지고, 앞 항목들이 지워지면서 결국 지워진다.
+    */
+   private void putLocked(K key, V value, int weight, long writeTime, long now) {
+      if (softTier != null)
+         softTier.invalidate(key);
+      Node<K, V> node = data.get(key);
+      if (node != null) {
+         node.value = value;
+         node.writeTime = writeTime;
+         node.accessTime = now;
+         setWeight(node, weight);
+         writeOrder.moveToBack(node);
+         onAccess(node);
+      } else {
+         node = new Node<>(key, value, weight, now);
+         node.writeTime = writeTime;
+         data.put(key, node);
+         sketch.ensureCapacity(data.mappingCount());
+         sketch.increment(key);
+         node.queue = Node.WINDOW;
+         window.addLast(node);
+         writeOrder.addLast(node);
+         windowWeight += weight;
+         weightedSize += weight;
+      }
+   }
+
+   public void invalidate(K key) {
+      // 본 영역에서 먼저 빼야 그사이 밀려난 값이 soft 영역에 남지 않는다.
+      Node<K, V> node = data.remove(key);
+      if (softTier != null)
+         softTier.invalidate(key);
+      if (node == null)
+         return;
+
+      evictionLock.lock();
+      try {
+         unlink(node);
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   public void invalidateAll() {
+      evictionLock.lock();
+      try {
+         for (K key : data.keySet()) {
+            Node<K, V> node = data.remove(key);
+            if (node != null)
+               unlink(node);
+         }
+         if (softTier != null)
+            softTier.clear();
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   /**
+    * 쌓인 읽기 기록을 반영하고 정책을 정리한다.
+    */
+   public void cleanUp() {
+      evictionLock.lock();
+      try {
+         drainReadBuffer();
+         expireEntries(ticker.read());
+         evict();
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   /**
+    * 빈도 스케치 값이 큰 순서로 살아 있는 항목을 limit 개까지 돌려준다. 빈도가 같으면 protected, window, probation 순이다.
+    * 모든 항목을 잠금 아래에서 훑으므로 종료할 때처럼 드물게만 부른다.
+    */
+   public List<HotEntry<K, V>> hottest(int limit) {
+      if (limit < 0)
+         throw new IllegalArgumentException("limit: " + limit);
+
+      List<Node<K, V>> nodes = new ArrayList<>();
+      long now = ticker.read();
+      evictionLock.lock();
+      try {
+         drainReadBuffer();
+         for (AccessOrderDeque<K, V> deque : List.of(protectedDeque, window, probation)) {
+            for (Node<K, V> node = deque.peekLast(); node != null; node = node.previous) {
+               if (!isExpired(node, now))
+                  nodes.add(node);
+            }
+         }
+         // 스케치는 잠금 아래에서만 읽을 수 있다. 정렬은 안정적이므로 빈도가 같으면 위의 순서가 유지된다.
+         nodes.sort(Comparator.comparingInt((Node<K, V> node) -> sketch.frequency(node.key)).reversed());
+      } finally {
+         evictionLock.unlock();
+      }
+
+      List<HotEntry<K, V>> hottest = new ArrayList<>(Math.min(limit, nodes.size()));
+      for (Node<K, V> node : nodes.subList(0, Math.min(limit, nodes.size())))
+         hottest.add(new HotEntry<>(node.key, node.value, Duration.ofNanos(now - node.writeTime)));
+      return hottest;
+   }
+
+   public long estimatedSize() {
+      return data.mappingCount();
+   }
+
+   /**
+    * soft 영역에 남아 있는 항목 수의 어림값. softOverflow 를 켜지 않았으면 0.
+    */
+   public long softEstimatedSize() {
+      return softTier == null ? 0 : softTier.estimatedSize();
+   }
+
+   public long weightedSize() {
+      evictionLock.lock();
+      try {
+         return weightedSize;
+      } finally {
+         evictionLock.unlock();
+      }
+   }
+
+   public long maximumWeight() {
+      return maximum;
+   }
+
+   public CacheStats stats() {
+      return stats;
+   }
+
+   /**
+    * 주기적으로 만료 항목을 지우던 작업을 멈추고 MBean 을 내린다. 스케줄러와 직접 넘긴 refreshExecutor 는 만든 쪽이 닫는다.
+    */
+   @Override
+   public void close() {
+      if (sweeper != null)
+         sweeper.cancel(false);
+      if (ownedRefreshExecutor != null)
+         ownedRefreshExecutor.shutdown();
+      if (objectName != null) {
+         try {
+            ManagementFactory.getPlatformMBeanServer().unregisterMBean(objectName);
+         } catch (JMException ignored) {
+            // 이미 내려갔다.
+         }
+      }
+   }
+
+   /**
+    * 캐시를 Map 으로 보는 뷰. 조회는 통계와 정책에 반영되지 않고, 삭제는 캐시에서 지운다.
+    */
+   public Map<K, V> asMap() {
+      Map<K, V> view = mapView;
+      return view != null ? view : (mapView = new MapView());
+   }
+
+   private void afterRead(Node<K, V> node) {
+      long writes = readBufferWrites.get();
+      long pending = writes - readBufferReads;
+      // 버퍼가 가득 찼으면 이번 읽기 기록은 버린다. 정책은 근사치여도 충분하다.
+      if (pending < READ_BUFFER_SIZE && readBufferWrites.compareAndSet(writes, writes + 1)) {
+         readBuffer.lazySet((int) (writes & READ_BUFFER_MASK), node);
+         pending++;
+      }
+      if (pending >= READ_DRAIN_THRESHOLD && evictionLock.tryLock()) {
+         try {
+            drainReadBuffer();
+         } finally {
+            evictionLock.unlock();
+         }
+      }
+   }
+
+   private void drainReadBuffer() {
+      long reads = readBufferReads;
+      long writes = readBufferWrites.get();
+      for (; reads < writes; reads++) {
+         int index = (int) (reads & READ_BUFFER_MASK);
+         Node<K, V> node = readBuffer.get(index);
+         if (node == null)
+            break; // 자리는 잡았지만 아직 쓰지 않은 칸. 다음에 이어서 읽는다.
+         readBuffer.lazySet(index, null);
+         onAccess(node);
+      }
+      readBufferReads = reads;
+   }
+
+   private void onAccess(Node<K, V> node) {
+      if (node.queue == Node.DEAD)
+         return;
+
+      sketch.increment(node.key);
+      if (node.queue == Node.WINDOW) {
+         window.moveToBack(node);
+      } else if (node.queue == Node.PROBATION) {
+         probation.remove(node);
+         node.queue = Node.PROTECTED;
+         protectedDeque.addLast(node);
+         protectedWeight += node.weight;
+         demoteFromProtected();
+      } else {
+         protectedDeque.moveToBack(node);
+      }
+   }
+
+   private void demoteFromProtected() {
+      while (protectedWeight > protectedMaximum) {
+         Node<K, V> demoted = protectedDeque.peekFirst();
+         if (demoted == null)
+            return;
+         protectedDeque.remove(demoted);
+         protectedWeight -= demoted.weight;
+         demoted.queue = Node.PROBATION;
+         probation.addLast(demoted);
+      }
+   }
+
+   private boolean isExpired(Node<K, V> node, long now) {
+      return now - node.writeTime >= expireAfterWriteNanos
+            || now - node.accessTime >= expireAfterAccessNanos;
+   }
+
+   /**
+    * 쓰기 순서 큐와 세 접근 순서 큐의 앞에서부터 만료된 항목을 지운다.
+    * 접근 순서는 읽기 기록이 유실될 수 있어 근사치이므로, 앞이 살아 있으면 거기서 멈춘다.
+    */
+   private void expireEntries(long now) {
+      if (expireAfterWriteNanos != Long.MAX_VALUE) {
+         Node<K, V> node;
+         while ((node = writeOrder.peekFirst()) != null && now - node.writeTime >= expireAfterWriteNanos)
+            expireNode(node);
+      }
+      if (expireAfterAccessNanos != Long.MAX_VALUE) {
+         expireAccessOrder(window, now);
+         expireAccessOrder(probation, now);
+         expireAccessOrder(protectedDeque, now);
+      }
+   }
+
+   private void expireAccessOrder(AccessOrderDeque<K, V> deque, long now) {
+      Node<K, V> node;
+      while ((node = deque.peekFirst()) != null && isExpired(node, now))
+         expireNode(node);
+   }
+
+   private void expireNode(Node<K, V> node) {
+      boolean removed = data.remove(node.key, node);
+      unlink(node);
+      if (!removed)
+         return;
+      stats.recordExpiration();
+      emitEviction(node, CacheEvictionEvent.EXPIRED);
+   }
+
+   private void emitEviction(Node<K, V> node, String cause) {
+      CacheEvictionEvent event = new CacheEvictionEvent();
+      if (event.shouldCommit()) {
+         event.cache = name;
+         event.key = String.valueOf(node.key);
+         event.weight = node.weight;
+         event.cause = cause;
+         event.commit();
+      }
+   }
+
+   private void evict() {
+      while (windowWeight > windowMaximum) {
+         Node<K, V> candidate = window.peekFirst();
+         window.remove(candidate);
+         windowWeight -= candidate.weight;
+         candidate.queue = Node.PROBATION;
+         probation.addLast(candidate);
+      }
+
+      while (weightedSize > maximum) {
+         Node<K, V> victim = probation.peekFirst();
+         Node<K, V> candidate = probation.peekLast();
+         if (victim == null) {
+            victim = protectedDeque.peekFirst() != null ? protectedDeque.peekFirst() : window.peekFirst();
+            if (victim == null)
+               return;
+            evictNode(victim);
+         } else if (victim == candidate || sketch.frequency(candidate.key) > sketch.frequency(victim.key)) {
+            evictNode(victim);
+         } else {
+            evictNode(candidate);
+         }
+      }
+   }
+
+   /**
+    * 그사이 invalidate 로 이미 빠진 항목이면 내보낸 것으로 세지 않고 soft 영역에도 넣지 않는다.
+    */
+   private void evictNode(Node<K, V> node) {
+      boolean removed = data.remove(node.key, node);
+      unlink(node);
+      if (!removed)
+         return;
+      stats.recordEviction(node.weight);
+      emitEviction(node, CacheEvictionEvent.SIZE);
+      if (softTier != null)
+         softTier.put(node.key, node.value, node.writeTime);
+   }
+
+   private void unlink(Node<K, V> node) {
+      switch (node.queue) {
+         case Node.WINDOW:
+            window.remove(node);
+            windowWeight -= node.weight;
+            break;
+         case Node.PROBATION:
+            probation.remove(node);
+            break;
+         case Node.PROTECTED:
+            protectedDeque.remove(node);
+            protectedWeight -= node.weight;
+            break;
+         default:
+            return;
+      }
+      writeOrder.remove(node);
+      weightedSize -= node.weight;
+      node.queue = Node.DEAD;
+   }
+
+   private void setWeight(Node<K, V> node, int weight) {
+      int delta = weight - node.weight;
+      node.weight = weight;
+      weightedSize += delta;
+      if (node.queue == Node.WINDOW)
+         windowWeight += delta;
+      else if (node.queue == Node.PROTECTED)
+         protectedWeight += delta;
+   }
+
+   @FunctionalInterface
+   public interface Weigher<K, V> {
+      int weigh(K key, V value);
+   }
+
+   public static class Builder<K, V> {
+      private long maximumWeight = 10_000;
+      private Weigher<? super K, ? super V> weigher = (k, v) -> 1;
+      private boolean weighted;
+      private long expireAfterWriteNanos = Long.MAX_VALUE;
+      private long expireAfterAccessNanos = Long.MAX_VALUE;
+      private long loadTimeoutNanos = TimeUnit.SECONDS.toNanos(5);
+      private long refreshAfterWriteNanos = Long.MAX_VALUE;
+      private Executor refreshExecutor;
+      private boolean softOverflow;
+      private String name = "cache";
+      private boolean registerMBean;
+      private Ticker ticker = Ticker.systemTicker();
+      private ScheduledExecutorService scheduler;
+
+      public Builder<K, V> maximumSize(long maximumSize) {
+         maximumWeight(maximumSize, (k, v) -> 1);
+         this.weighted = false;
+         return this;
+      }
+
+      public Builder<K, V> maximumWeight(long maximumWeight, Weigher<? super K, ? super V> weigher) {
+         if (maximumWeight < 1)
+            throw new IllegalArgumentException("maximumWeight: " + maximumWeight);
+         this.maximumWeight = maximumWeight;
+         this.weigher = Objects.requireNonNull(weigher);
+         this.weighted = true;
+         return this;
+      }
+
+      public Builder<K, V> expireAfterWrite(Duration duration) {
+         this.expireAfterWriteNanos = positiveNanos(duration);
+         return this;
+      }
+
+      public Builder<K, V> expireAfterAccess(Duration duration) {
+         this.expireAfterAccessNanos = positiveNanos(duration);
+         return this;
+      }
+
+      /**
+       * 같은 키의 읽기가 이미 진행 중일 때 그 결과를 기다리는 최대 시간.
+       */
+      public Builder<K, V> loadTimeout(Duration duration) {
+         this.loadTimeoutNanos = positiveNanos(duration);
+         return this;
+      }
+
+      /**
+       * 쓰고 나서 이 시간이 지난 항목이 get/getAll 로 읽히면 백그라운드에서 다시 읽는다.
+       */
+      public Builder<K, V> refreshAfterWrite(Duration duration) {
+         this.refreshAfterWriteNanos = positiveNanos(duration);
+         return this;
+      }
+
+      /**
+       * 다시 읽기를 맡길 executor. 지정하지 않으면 스레드 수와 큐 길이가 정해진 전용 풀을 만든다.
+       * 작업을 거절하면 그 다시 읽기는 건너뛰고 통계에 남긴다.
+       */
+      public Builder<K, V> refreshExecutor(Executor executor) {
+         this.refreshExecutor = Objects.requireNonNull(executor);
+         return this;
+      }
+
+      /**
+       * 크기 때문에 밀려난 항목을 SoftReference 로 들고 있다가 다시 찾으면 되살린다. 메모리가 모자라면 GC 가 치운다.
+       */
+      public Builder<K, V> softOverflow() {
+         this.softOverflow = true;
+         return this;
+      }
+
+      /**
+       * JMX ObjectName 과 JFR 이벤트에 붙는 이름.
+       */
+      public Builder<K, V> name(String name) {
+         this.name = Objects.requireNonNull(name);
+         return this;
+      }
+
+      /**
+       * 만들 때 플랫폼 MBeanServer 에 {@link CacheMXBean} 을 등록하고 close 할 때 내린다. 이름이 겹치면 build 가 실패한다.
+       */
+      public Builder<K, V> registerMBean() {
+         this.registerMBean = true;
+         return this;
+      }
+
+      public Builder<K, V> ticker(Ticker ticker) {
+         this.ticker = Objects.requireNonNull(ticker);
+         return this;
+      }
+
+      /**
+       * 지정하면 만료 시간의 절반 간격으로 만료 항목을 치운다. 지정하지 않으면 쓰기와 cleanUp 때만 치운다.
+       */
+      public Builder<K, V> scheduler(ScheduledExecutorService scheduler) {
+         this.scheduler = Objects.requireNonNull(scheduler);
+         return this;
+      }
+
+      private static long positiveNanos(Duration duration) {
+         if (duration.isNegative() || duration.isZero())
+            throw new IllegalArgumentException("duration: " + duration);
+         return duration.toNanos();
+      }
+
+      public BoundedCache<K, V> build() {
+         return new BoundedCache<>(this);
+      }
+   }
+
+   public static final class HotEntry<K, V> {
+      private final K key;
+      private final V value;
+      private final Duration age;
+
+      HotEntry(K key, V value, Duration age) {
+         this.key = key;
+         this.value = value;
+         this.age = age;
+      }
+
+      public K getKey() {
+         return key;
+      }
+
+      public V getValue() {
+         return value;
+      }
+
+      /**
+       * 쓰인 뒤 지난 시간.
+       */
+      public Duration getAge() {
+         return age;
+      }
+   }
+
+   private static final class Refresh<K, V> {
+      final Node<K, V> node;
+      final long writeTime;
+      final CompletableFuture<V> future;
+
+      Refresh(Node<K, V> node, CompletableFuture<V> future) {
+         this.node = node;
+         this.writeTime = node.writeTime;
+         this.future = future;
+      }
+   }
+
+   static final class Node<K, V> {
+      static final int WINDOW = 0;
+      static final int PROBATION = 1;
+      static final int PROTECTED = 2;
+      static final int DEAD = 3;
+
+      final K key;
+      volatile V value;
+      volatile long writeTime;
+      volatile long accessTime;
+
+      // 아래는 정책 잠금 아래에서만 읽고 쓴다.
+      int weight;
+      int queue;
+      Node<K, V> previous;
+      Node<K, V> next;
+      Node<K, V> previousInWriteOrder;
+      Node<K, V> nextInWriteOrder;
+      boolean inWriteOrder;
+
+      Node(K key, V value, int weight, long now) {
+         this.key = key;
+         this.value = value;
+         this.weight = weight;
+         this.writeTime = now;
+         this.accessTime = now;
+      }
+   }
+
+   /**
+    * 노드에 링크를 두는 침습형 이중 연결 리스트. 삭제와 이동이 상수 시간이다.
+    */
+   static final class AccessOrderDeque<K, V> {
+      private Node<K, V> head;
+      private Node<K, V> tail;
+
+      Node<K, V> peekFirst() {
+         return head;
+      }
+
+      Node<K, V> peekLast() {
+         return tail;
+      }
+
+      void addLast(Node<K, V> node) {
+         node.previous = tail;
+         node.next = null;
+         if (tail == null)
+            head = node;
+         else
+            tail.next = node;
+         tail = node;
+      }
+
+      void remove(Node<K, V> node) {
+         if (node.previous == null)
+            head = node.next;
+         else
+            node.previous.next = node.next;
+         if (node.next == null)
+            tail = node.previous;
+         else
+            node.next.previous = node.previous;
+         node.previous = null;
+         node.next = null;
+      }
+
+      void moveToBack(Node<K, V> node) {
+         if (node != tail) {
+            remove(node);
+            addLast(node);
+         }
+      }
+   }
+
+   /**
+    * 쓰기 순서용 링크를 쓰는 큐. 만료 시간이 모두 같으므로 앞쪽이 항상 가장 먼저 만료된다.
+    */
+   static final class WriteOrderDeque<K, V> {
+      private Node<K, V> head;
+      private Node<K, V> tail;
+
+      Node<K, V> peekFirst() {
+         return head;
+      }
+
+      void addLast(Node<K, V> node) {
+         node.previousInWriteOrder = tail;
+         node.nextInWriteOrder = null;
+         if (tail == null)
+            head = node;
+         else
+            tail.nextInWriteOrder = node;
+         tail = node;
+         node.inWriteOrder = true;
+      }
+
+      void remove(Node<K, V> node) {
+         if (!node.inWriteOrder)
+            return;
+         if (node.previousInWriteOrder == null)
+            head = node.nextInWriteOrder;
+         else
+            node.previousInWriteOrder.nextInWriteOrder = node.nextInWriteOrder;
+         if (node.nextInWriteOrder == null)
+            tail = node.previousInWriteOrder;
+         else
+            node.nextInWriteOrder.previousInWriteOrder = node.previousInWriteOrder;
+         node.previousInWriteOrder = null;
+         node.nextInWriteOrder = null;
+         node.inWriteOrder = false;
+      }
+
+      void moveToBack(Node<K, V> node) {
+         if (node != tail) {
+            remove(node);
+            addLast(node);
+         }
+      }
+   }
+
+   private final class MapView extends AbstractMap<K, V> {
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public V get(Object key) {
+         return peek((K) key);
+      }
+
+      @Override
+      public boolean containsKey(Object key) {
+         return get(key) != null;
+      }
+
+      @Override
+      public V put(K key, V value) {
+         V previous = get(key);
+         BoundedCache.this.put(key, value);
+         return previous;
+      }
+
+      @Override
+      @SuppressWarnings("unchecked")
+      public V remove(Object key) {
+         V previous = get(key);
+         invalidate((K) key);
+         return previous;
+      }
+
+      @Override
+      public int size() {
+         return data.size();
+      }
+
+      @Override
+      public boolean isEmpty() {
+         return data.isEmpty();
+      }
+
+      @Override
+      public void clear() {
+         invalidateAll();
+      }
+
+      @Override
+      public Set<Entry<K, V>> entrySet() {
+         return new AbstractSet<>() {
+            @Override
+            public Iterator<Entry<K, V>> iterator() {
+               Iterator<Node<K, V>> nodes = data.values().iterator();
+               return new Iterator<>() {
+                  private K current;
+
+                  @Override
+                  public boolean hasNext() {
+                     return nodes.hasNext();
+                  }
+
+                  @Override
+                  public Entry<K, V> next() {
+                     Node<K, V> node = nodes.next();
+                     current = node.key;
+                     return new SimpleImmutableEntry<>(node.key, node.value);
+                  }
+
+                  @Override
+                  public void remove() {
+                     if (current == null)
+                        throw new IllegalStateException();
+                     invalidate(current);
+                     current = null;
+                  }
+               };
+            }
+
+            @Override
+            public int size() {
+               return data.size();
+            }
+         };
+      }
+   }
+}
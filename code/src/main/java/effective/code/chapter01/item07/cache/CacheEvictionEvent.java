@@ -0,0 +1,33 @@
+package effective.code.chapter01.item07.cache;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 크기 상한이나 만료 때문에 캐시에서 빠진 항목.
+ */
+@Name("effective.cache.Eviction")
+@Label("Cache Eviction")
+@Category({"Effective Java", "Cache"})
+@Description("캐시가 크기 상한이나 만료로 항목을 내보냄")
+@StackTrace(false)
+class CacheEvictionEvent extends jdk.jfr.Event {
+
+   static final String SIZE = "SIZE";
+   static final String EXPIRED = "EXPIRED";
+
+   @Label("Cache")
+   String cache;
+
+   @Label("Key")
+   String key;
+
+   @Label("Weight")
+   int weight;
+
+   @Label("Cause")
+   String cause;
+}
@@ -1,20 +1,32 @@
 package effective.code.chapter01.item07.cache;
 
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
 
 public class CacheKey {
+   // nanoTime 을 시각으로 바꿀 때 쓰는 기준점
+   private static final Instant EPOCH = Instant.now();
+   private static final long EPOCH_NANOS = System.nanoTime();
+
    private Integer value;
 
-   private LocalDateTime created;
+   private long created; // 조회마다 키를 만들므로 LocalDateTime 대신 nanoTime 만 적어둔다.
 
    public CacheKey(Integer value) {
       this.value = value;
-      this.created = LocalDateTime.now();
+      this.created = System.nanoTime();
+   }
+
+   public Integer getValue() {
+      return value;
    }
 
    @Override
    public boolean equals(Object o) {
-      return this.value.equals(o);
+      if (this == o) return true;
+      if (!(o instanceof CacheKey)) return false;
+      return this.value.equals(((CacheKey) o).value);
    }
 
    @Override
@@ -23,6 +35,10 @@ public class CacheKey {
    }
 
    public LocalDateTime getCreated() {
+      return LocalDateTime.ofInstant(EPOCH.plusNanos(created - EPOCH_NANOS), ZoneId.systemDefault());
+   }
+
+   public long getCreatedNanos() {
       return created;
    }
 
@@ -30,7 +46,7 @@ public class CacheKey {
    public String toString() {
       return "CacheKey{" +
             "value=" + value +
-            ", created=" + created +
+            ", created=" + getCreated() +
             '}';
    }
 }
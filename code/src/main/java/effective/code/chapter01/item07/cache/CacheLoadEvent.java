@@ -0,0 +1,35 @@
+package effective.code.chapter01.item07.cache;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * 저장소에서 값을 읽어온 한 번의 로드. 이벤트의 duration 이 로드에 걸린 시간이다.
+ */
+@Name("effective.cache.Load")
+@Label("Cache Load")
+@Category({"Effective Java", "Cache"})
+@Description("캐시가 loader 로 값을 읽어온 시간")
+@StackTrace(false)
+class CacheLoadEvent extends jdk.jfr.Event {
+
+   @Label("Cache")
+   String cache;
+
+   @Label("Key")
+   @Description("한 키만 읽었을 때의 키. 묶음으로 읽었으면 비어 있다.")
+   String key;
+
+   @Label("Key Count")
+   int keyCount;
+
+   @Label("Success")
+   boolean success;
+
+   @Label("Refresh")
+   @Description("백그라운드 다시 읽기였는지")
+   boolean refresh;
+}
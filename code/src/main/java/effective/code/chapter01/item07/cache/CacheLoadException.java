@@ -0,0 +1,8 @@
+package effective.code.chapter01.item07.cache;
+
+public class CacheLoadException extends RuntimeException {
+
+   public CacheLoadException(String message, Throwable cause) {
+      super(message, cause);
+   }
+}
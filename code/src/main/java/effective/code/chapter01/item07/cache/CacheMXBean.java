@@ -0,0 +1,44 @@
+package effective.code.chapter01.item07.cache;
+
+/**
+ * JMX 로 내보내는 캐시 지표. jconsole 이나 JMC 의 MBeans 탭에서
+ * effective.code.cache:type=BoundedCache,name=이름 으로 볼 수 있다.
+ */
+public interface CacheMXBean {
+
+   long getHitCount();
+
+   long getMissCount();
+
+   double getHitRate();
+
+   long getLoadSuccessCount();
+
+   long getLoadFailureCount();
+
+   long getCoalescedLoadCount();
+
+   double getAverageLoadPenaltyNanos();
+
+   long getLoadLatencyP50Nanos();
+
+   long getLoadLatencyP99Nanos();
+
+   long getLoadLatencyP999Nanos();
+
+   long getEvictionCount();
+
+   long getExpirationCount();
+
+   long getRefreshRejectedCount();
+
+   long getEstimatedSize();
+
+   long getWeightedSize();
+
+   long getMaximumWeight();
+
+   long getSoftEstimatedSize();
+
+   void cleanUp();
+}
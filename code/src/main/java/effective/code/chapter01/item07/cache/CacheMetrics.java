@@ -0,0 +1,103 @@
+package effective.code.chapter01.item07.cache;
+
+/**
+ * {@link CacheMXBean} 구현. 값은 부를 때마다 캐시 통계에서 바로 읽는다.
+ */
+final class CacheMetrics implements CacheMXBean {
+
+   private final BoundedCache<?, ?> cache;
+
+   CacheMetrics(BoundedCache<?, ?> cache) {
+      this.cache = cache;
+   }
+
+   @Override
+   public long getHitCount() {
+      return cache.stats().hitCount();
+   }
+
+   @Override
+   public long getMissCount() {
+      return cache.stats().missCount();
+   }
+
+   @Override
+   public double getHitRate() {
+      return cache.stats().hitRate();
+   }
+
+   @Override
+   public long getLoadSuccessCount() {
+      return cache.stats().loadSuccessCount();
+   }
+
+   @Override
+   public long getLoadFailureCount() {
+      return cache.stats().loadFailureCount();
+   }
+
+   @Override
+   public long getCoalescedLoadCount() {
+      return cache.stats().coalescedLoadCount();
+   }
+
+   @Override
+   public double getAverageLoadPenaltyNanos() {
+      return cache.stats().averageLoadPenaltyNanos();
+   }
+
+   @Override
+   public long getLoadLatencyP50Nanos() {
+      return cache.stats().loadLatency().valueAtPercentile(50);
+   }
+
+   @Override
+   public long getLoadLatencyP99Nanos() {
+      return cache.stats().loadLatency().valueAtPercentile(99);
+   }
+
+   @Override
+   public long getLoadLatencyP999Nanos() {
+      return cache.stats().loadLatency().valueAtPercentile(99.9);
+   }
+
+   @Override
+   public long getEvictionCount() {
+      return cache.stats().evictionCount();
+   }
+
+   @Override
+   public long getExpirationCount() {
+      return cache.stats().expirationCount();
+   }
+
+   @Override
+   public long getRefreshRejectedCount() {
+      return cache.stats().refreshRejectedCount();
+   }
+
+   @Override
+   public long getEstimatedSize() {
+      return cache.estimatedSize();
+   }
+
+   @Override
+   public long getWeightedSize() {
+      return cache.weightedSize();
+   }
+
+   @Override
+   public long getMaximumWeight() {
+      return cache.maximumWeight();
+   }
+
+   @Override
+   public long getSoftEstimatedSize() {
+      return cache.softEstimatedSize();
+   }
+
+   @Override
+   public void cleanUp() {
+      cache.cleanUp();
+   }
+}
@@ -0,0 +1,180 @@
+package effective.code.chapter01.item07.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 캐시 통계. 여러 스레드가 동시에 올려도 경합이 적도록 LongAdder 로 센다.
+ */
+public class CacheStats {
+
+   private final LongAdder hits = new LongAdder();
+   private final LongAdder misses = new LongAdder();
+   private final LongAdder evictions = new LongAdder();
+   private final LongAdder evictionWeight = new LongAdder();
+   private final LongAdder expirations = new LongAdder();
+   private final LongAdder loadSuccesses = new LongAdder();
+   private final LongAdder loadFailures = new LongAdder();
+   private final LongAdder totalLoadTime = new LongAdder();
+   private final LongAdder coalescedLoads = new LongAdder();
+   private final LongAdder softHits = new LongAdder();
+   private final LatencyHistogram loadLatency = new LatencyHistogram();
+   private final LongAdder refreshesScheduled = new LongAdder();
+   private final LongAdder refreshesSucceeded = new LongAdder();
+   private final LongAdder refreshesFailed = new LongAdder();
+   private final LongAdder refreshesRejected = new LongAdder();
+
+   void recordHit() {
+      hits.increment();
+   }
+
+   void recordMiss() {
+      misses.increment();
+   }
+
+   void recordEviction(int weight) {
+      evictions.increment();
+      evictionWeight.add(weight);
+   }
+
+   void recordExpiration() {
+      expirations.increment();
+   }
+
+   void recordLoadSuccess(long loadNanos) {
+      loadSuccesses.increment();
+      totalLoadTime.add(loadNanos);
+      loadLatency.record(loadNanos);
+   }
+
+   void recordLoadFailure(long loadNanos) {
+      loadFailures.increment();
+      totalLoadTime.add(loadNanos);
+      loadLatency.record(loadNanos);
+   }
+
+   void recordCoalescedLoad() {
+      coalescedLoads.increment();
+   }
+
+   void recordSoftHit() {
+      softHits.increment();
+   }
+
+   void recordRefreshScheduled(int count) {
+      refreshesScheduled.add(count);
+   }
+
+   void recordRefreshSuccess(int count) {
+      refreshesSucceeded.add(count);
+   }
+
+   void recordRefreshFailure(int count) {
+      refreshesFailed.add(count);
+   }
+
+   void recordRefreshRejected(int count) {
+      refreshesRejected.add(count);
+   }
+
+   public long hitCount() {
+      return hits.sum();
+   }
+
+   public long missCount() {
+      return misses.sum();
+   }
+
+   public long evictionCount() {
+      return evictions.sum();
+   }
+
+   public long evictionWeight() {
+      return evictionWeight.sum();
+   }
+
+   public long expirationCount() {
+      return expirations.sum();
+   }
+
+   public long loadSuccessCount() {
+      return loadSuccesses.sum();
+   }
+
+   public long loadFailureCount() {
+      return loadFailures.sum();
+   }
+
+   public long totalLoadTimeNanos() {
+      return totalLoadTime.sum();
+   }
+
+   public double averageLoadPenaltyNanos() {
+      long loads = loadSuccesses.sum() + loadFailures.sum();
+      return loads == 0 ? 0.0 : (double) totalLoadTime.sum() / loads;
+   }
+
+   /**
+    * 성공, 실패를 가리지 않은 로드 시간 분포.
+    */
+   public LatencyHistogram loadLatency() {
+      return loadLatency;
+   }
+
+   /**
+    * 이미 진행 중인 읽기에 합류해서 저장소에 가지 않은 요청 수.
+    */
+   public long coalescedLoadCount() {
+      return coalescedLoads.sum();
+   }
+
+   /**
+    * hitCount 가운데 soft 영역에서 되살려 맞힌 수.
+    */
+   public long softHitCount() {
+      return softHits.sum();
+   }
+
+   /**
+    * 백그라운드 다시 읽기에 맡긴 키 수. 아래 세 값도 모두 키 단위로 센다.
+    */
+   public long refreshScheduledCount() {
+      return refreshesScheduled.sum();
+   }
+
+   public long refreshSuccessCount() {
+      return refreshesSucceeded.sum();
+   }
+
+   public long refreshFailureCount() {
+      return refreshesFailed.sum();
+   }
+
+   /**
+    * executor 가 가득 차서 건너뛴 다시 읽기 수.
+    */
+   public long refreshRejectedCount() {
+      return refreshesRejected.sum();
+   }
+
+   public double hitRate() {
+      long hitCount = hits.sum();
+      long requests = hitCount + misses.sum();
+      return requests == 0 ? 1.0 : (double) hitCount / requests;
+   }
+
+   @Override
+   public String toString() {
+      return "CacheStats{" +
+            "hits=" + hitCount() +
+            ", softHits=" + softHitCount() +
+            ", misses=" + missCount() +
+            ", evictions=" + evictionCount() +
+            ", expirations=" + expirationCount() +
+            ", loads=" + (loadSuccessCount() + loadFailureCount()) +
+            ", loadP99=" + loadLatency.valueAtPercentile(99) + "ns" +
+            ", coalescedLoads=" + coalescedLoadCount() +
+            ", refreshes=" + refreshSuccessCount() + "/" + refreshScheduledCount() +
+            ", refreshRejections=" + refreshRejectedCount() +
+            '}';
+   }
+}
@@ -0,0 +1,93 @@
+package effective.code.chapter01.item07.cache;
+
+/**
+ * 키별 최근 접근 빈도를 어림하는 4비트 count-min 스케치. (TinyLFU)
+ * long 하나에 카운터 16개를 담고, 증가 횟수가 표본 크기에 이르면 모든 카운터를 반으로 줄여 오래된 인기를 잊는다.
+ * 표는 항목 수에 맞춰 두 배씩 키운다. 무게 상한(예: 바이트)이 커도 실제 항목 수만큼만 메모리를 쓴다.
+ * 스레드 안전하지 않으므로 캐시의 정책 잠금 아래에서만 쓴다.
+ */
+final class FrequencySketch<K> {
+
+   private static final long[] SEEDS = {
+         0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+   private static final long RESET_MASK = 0x7777777777777777L;
+   private static final int MAX_COUNT = 15;
+
+   private static final int MINIMUM_CAPACITY = 16;
+   private static final int MAXIMUM_CAPACITY = 1 << 30;
+
+   private long[] table = new long[0];
+   private int tableMask;
+   private int sampleSize;
+   private int size;
+
+   FrequencySketch(long expectedSize) {
+      ensureCapacity(expectedSize);
+   }
+
+   /**
+    * 항목 수가 표 크기를 넘으면 표를 새로 만든다. 그동안 센 빈도는 잊는다.
+    */
+   void ensureCapacity(long expectedSize) {
+      int capacity = (int) Math.min(Math.max(MINIMUM_CAPACITY, expectedSize), MAXIMUM_CAPACITY);
+      int length = Integer.highestOneBit(capacity * 2 - 1);
+      if (length <= table.length)
+         return;
+
+      this.table = new long[length];
+      this.tableMask = length - 1;
+      this.sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+      this.size = 0;
+   }
+
+   int frequency(K key) {
+      int hash = spread(key.hashCode());
+      int frequency = MAX_COUNT;
+      for (int i = 0; i < SEEDS.length; i++) {
+         int index = indexOf(hash, i);
+         int offset = counterOffset(hash, i);
+         frequency = Math.min(frequency, (int) ((table[index] >>> offset) & 0xfL));
+      }
+      return frequency;
+   }
+
+   void increment(K key) {
+      int hash = spread(key.hashCode());
+      boolean added = false;
+      for (int i = 0; i < SEEDS.length; i++) {
+         int index = indexOf(hash, i);
+         int offset = counterOffset(hash, i);
+         if (((table[index] >>> offset) & 0xfL) != MAX_COUNT) {
+            table[index] += 1L << offset;
+            added = true;
+         }
+      }
+      if (added && ++size == sampleSize)
+         reset();
+   }
+
+   private void reset() {
+      int odd = 0;
+      for (int i = 0; i < table.length; i++) {
+         odd += Long.bitCount(table[i] & 0x1111111111111111L);
+         table[i] = (table[i] >>> 1) & RESET_MASK;
+      }
+      size = (size - (odd >>> 2)) >>> 1;
+   }
+
+   private int indexOf(int hash, int row) {
+      long h = (hash + SEEDS[row]) * SEEDS[row];
+      h += h >>> 32;
+      return (int) h & tableMask;
+   }
+
+   private int counterOffset(int hash, int row) {
+      return (((hash >>> (row << 3)) & 3) << 2 | row) << 2;
+   }
+
+   private static int spread(int x) {
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      x = ((x >>> 16) ^ x) * 0x45d9f3b;
+      return (x >>> 16) ^ x;
+   }
+}
@@ -0,0 +1,68 @@
+package effective.code.chapter01.item07.cache;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * 지연 시간(나노초) 히스토그램. 2의 거듭제곱 구간마다 8칸으로 나눠 세므로 백분위 값은 실제보다 최대 12.5% 크다.
+ * 칸마다 따로 세므로 기록이 한 카운터에 몰리지 않고, 고정 크기 배열 하나 말고는 할당하지 않는다.
+ */
+public final class LatencyHistogram {
+
+   private static final int SUB_BUCKET_BITS = 3;
+   private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+   private static final int BUCKETS = (64 - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS;
+
+   private final AtomicLongArray counts = new AtomicLongArray(BUCKETS);
+
+   void record(long nanos) {
+      counts.incrementAndGet(bucketOf(Math.max(0, nanos)));
+   }
+
+   public long count() {
+      long count = 0;
+      for (int i = 0; i < BUCKETS; i++)
+         count += counts.get(i);
+      return count;
+   }
+
+   /**
+    * percentile(0~100) 위치의 값이 들어 있는 칸의 상한. 기록이 없으면 0.
+    */
+   public long valueAtPercentile(double percentile) {
+      if (percentile < 0 || percentile > 100)
+         throw new IllegalArgumentException("percentile: " + percentile);
+
+      long[] snapshot = new long[BUCKETS];
+      long total = 0;
+      for (int i = 0; i < BUCKETS; i++)
+         total += snapshot[i] = counts.get(i);
+      if (total == 0)
+         return 0;
+
+      long rank = Math.max(1, (long) Math.ceil(total * percentile / 100));
+      long seen = 0;
+      for (int i = 0; i < BUCKETS; i++) {
+         seen += snapshot[i];
+         if (seen >= rank)
+            return upperBoundOf(i);
+      }
+      return upperBoundOf(BUCKETS - 1);
+   }
+
+   static int bucketOf(long nanos) {
+      if (nanos < SUB_BUCKETS)
+         return (int) nanos;
+      int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+      int subBucket = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+      return ((exponent - SUB_BUCKET_BITS + 1) << SUB_BUCKET_BITS) | subBucket;
+   }
+
+   static long upperBoundOf(int bucket) {
+      if (bucket < SUB_BUCKETS)
+         return bucket;
+      int exponent = (bucket >>> SUB_BUCKET_BITS) + SUB_BUCKET_BITS - 1;
+      long lower = (long) (SUB_BUCKETS | (bucket & (SUB_BUCKETS - 1))) << (exponent - SUB_BUCKET_BITS);
+      long width = 1L << (exponent - SUB_BUCKET_BITS);
+      return lower + width - 1 < 0 ? Long.MAX_VALUE : lower + width - 1;
+   }
+}
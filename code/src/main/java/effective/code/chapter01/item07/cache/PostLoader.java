@@ -0,0 +1,10 @@
+package effective.code.chapter01.item07.cache;
+
+/**
+ * 캐시에 없는 글을 저장소(DB, REST API 등)에서 읽어온다. 없는 글이면 null 을 돌려준다.
+ */
+@FunctionalInterface
+public interface PostLoader {
+
+   Post load(CacheKey key);
+}
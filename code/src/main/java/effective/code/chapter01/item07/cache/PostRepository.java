@@ -1,28 +1,221 @@
 package effective.code.chapter01.item07.cache;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
-import java.util.WeakHashMap;
+import java.util.Set;
 
-public class PostRepository {
+public class PostRepository implements AutoCloseable {
 
-   private Map<CacheKey, Post> cache;
+   private static final long DEFAULT_MAXIMUM_SIZE = 10_000;
+   private static final long DEFAULT_MISSING_MAXIMUM_SIZE = 10_000;
+   private static final Duration DEFAULT_MISSING_TTL = Duration.ofSeconds(30);
+
+   private final BoundedCache<CacheKey, Post> cache;
+   private final BoundedCache<CacheKey, Boolean> missing;
+   private final PostLoader loader;
+   private final BatchPostLoader batchLoader;
+   private final WriteBehindQueue writeBehind;
 
    public PostRepository() {
-      this.cache = new WeakHashMap<>();
+      this(BoundedCache.<CacheKey, Post>builder().name("posts").maximumSize(DEFAULT_MAXIMUM_SIZE).softOverflow());
+   }
+
+   public PostRepository(BoundedCache.Builder<CacheKey, Post> cacheBuilder) {
+      this(cacheBuilder, PostRepository::loadFromStore);
+   }
+
+   public PostRepository(BoundedCache.Builder<CacheKey, Post> cacheBuilder, PostLoader loader) {
+      this(cacheBuilder, loader, keys -> loadEach(loader, keys));
+   }
+
+   public PostRepository(BoundedCache.Builder<CacheKey, Post> cacheBuilder, PostLoader loader, BatchPostLoader batchLoader) {
+      this(cacheBuilder, loader, batchLoader, defaultMissingCacheBuilder(), null);
+   }
+
+   /**
+    * @param writeBehind {@link #save} 한 글을 모아서 저장소에 쓸 대기열. close 할 때 함께 닫는다.
+    */
+   public PostRepository(BoundedCache.Builder<CacheKey, Post> cacheBuilder, PostLoader loader, BatchPostLoader batchLoader,
+                         WriteBehindQueue writeBehind) {
+      this(cacheBuilder, loader, batchLoader, defaultMissingCacheBuilder(), writeBehind);
+   }
+
+   /**
+    * @param missingCacheBuilder 저장소에 없던 글 번호를 기억할 캐시. 글 캐시와 따로 두므로 없는 번호가 몰려와도 글이 밀려나지 않는다.
+    */
+   public PostRepository(BoundedCache.Builder<CacheKey, Post> cacheBuilder, PostLoader loader, BatchPostLoader batchLoader,
+                         BoundedCache.Builder<CacheKey, Boolean> missingCacheBuilder) {
+      this(cacheBuilder, loader, batchLoader, missingCacheBuilder, null);
+   }
+
+   public PostRepository(BoundedCache.Builder<CacheKey, Post> cacheBuilder, PostLoader loader, BatchPostLoader batchLoader,
+                         BoundedCache.Builder<CacheKey, Boolean> missingCacheBuilder, WriteBehindQueue writeBehind) {
+      this.cache = cacheBuilder.build();
+      this.missing = missingCacheBuilder.build();
+      this.loader = loader;
+      this.batchLoader = batchLoader;
+      this.writeBehind = writeBehind;
+   }
+
+   private static BoundedCache.Builder<CacheKey, Boolean> defaultMissingCacheBuilder() {
+      return BoundedCache.<CacheKey, Boolean>builder()
+            .name("posts-missing")
+            .maximumSize(DEFAULT_MISSING_MAXIMUM_SIZE)
+            .expireAfterWrite(DEFAULT_MISSING_TTL);
    }
 
+   /**
+    * 캐시에서 찾고, 없으면 저장소에서 읽는다. 같은 글을 동시에 놓친 요청들은 한 번의 읽기를 함께 기다린다.
+    * 저장소에 없는 글이면 null 을 돌려주고, 그 사실을 잠시 기억해서 그동안은 저장소에 다시 묻지 않는다.
+    */
    public Post getPostById(CacheKey key) {
-      if (cache.containsKey(key)) {
-         return cache.get(key);
-      } else {
-         // TODO DB에서 읽어오거나 REST API를 통해 읽어올 수 있습니다.
-         Post post = new Post();
-         cache.put(key, post);
-         return post;
+      return cache.get(key, this::load);
+   }
+
+   /**
+    * 캐시에 없는 글만 모아 저장소에서 한 번에 읽는다. 결과는 요청한 순서를 따르고, 없는 글은 빠진다.
+    */
+   public List<Post> getPostsByIds(List<CacheKey> keys) {
+      Map<CacheKey, Post> posts = cache.getAll(keys, this::loadAll);
+      List<Post> result = new ArrayList<>(keys.size());
+      for (CacheKey key : keys) {
+         Post post = posts.get(key);
+         if (post != null)
+            result.add(post);
       }
+      return result;
+   }
+
+   /**
+    * 캐시에는 바로 반영하고, 저장소에는 쓰기 지연 대기열을 거쳐 나중에 모아서 쓴다.
+    * 대기열이 가득 차 있으면 자리가 날 때까지 기다린다.
+    */
+   public void save(Post post) {
+      if (writeBehind == null)
+         throw new IllegalStateException("쓰기 지연 대기열 없이 만든 저장소입니다.");
+
+      CacheKey key = new CacheKey(post.getId());
+      // 대기열과 같은 잠금 안에서 캐시에 담아야 같은 글을 동시에 저장해도 캐시와 저장소에 같은 글이 남는다.
+      writeBehind.enqueue(post, () -> cache.put(key, post));
+      missing.invalidate(key);
    }
 
    public Map<CacheKey, Post> getCache() {
-      return cache;
+      return cache.asMap();
+   }
+
+   /**
+    * 가장 자주 읽힌 글 limit 개를 파일로 남긴다. 종료할 때 남겨 두면 다음 기동 때 {@link #loadSnapshot} 으로 캐시를 채울 수 있다.
+    */
+   public int writeSnapshot(Path target, int limit) throws IOException {
+      return PostSnapshot.write(cache.hottest(limit), target);
+   }
+
+   /**
+    * 스냅숏에서 maxAge 안에 쓰인 글만 캐시에 담는다. 만료 시간은 원래 쓰인 시각부터 센다. 담은 글 수를 돌려준다.
+    */
+   public int loadSnapshot(Path source, Duration maxAge) throws IOException {
+      return PostSnapshot.read(source, maxAge, cache);
+   }
+
+   /**
+    * 크기 상한 안에서 강하게 들고 있는 글 수.
+    */
+   public long getStrongTierSize() {
+      return cache.estimatedSize();
+   }
+
+   /**
+    * 밀려났지만 GC 가 아직 치우지 않은 글 수의 어림값.
+    */
+   public long getSoftTierSize() {
+      return cache.softEstimatedSize();
+   }
+
+   public CacheStats getStats() {
+      return cache.stats();
+   }
+
+   /**
+    * 없는 글 캐시의 통계. 적중 수가 저장소에 묻지 않고 넘긴 요청 수다.
+    */
+   public CacheStats getMissingStats() {
+      return missing.stats();
+   }
+
+   /**
+    * 남은 수정을 모두 저장소에 쓰고 캐시를 닫는다.
+    */
+   @Override
+   public void close() {
+      try {
+         if (writeBehind != null)
+            writeBehind.close();
+      } finally {
+         cache.close();
+         missing.close();
+      }
+   }
+
+   /**
+    * 아직 저장소에 쓰지 않은 수정이 있으면 그것을 먼저 본다. 캐시에서 밀려났어도 옛 글을 읽지 않는다.
+    */
+   private Post load(CacheKey key) {
+      Post unwritten = writeBehind == null ? null : writeBehind.pendingPost(key.getValue());
+      if (unwritten != null)
+         return unwritten;
+      if (missing.getIfPresent(key) != null)
+         return null;
+      Post post = loader.load(key);
+      if (post == null)
+         missing.put(key, Boolean.TRUE);
+      return post;
+   }
+
+   private Map<CacheKey, Post> loadAll(Set<CacheKey> keys) {
+      Map<CacheKey, Post> posts = new HashMap<>();
+      Set<CacheKey> unknown = new HashSet<>();
+      for (CacheKey key : keys) {
+         Post unwritten = writeBehind == null ? null : writeBehind.pendingPost(key.getValue());
+         if (unwritten != null)
+            posts.put(key, unwritten);
+         else if (missing.getIfPresent(key) == null)
+            unknown.add(key);
+      }
+      if (unknown.isEmpty())
+         return posts;
+
+      Map<CacheKey, Post> loaded = batchLoader.loadAll(unknown);
+      for (CacheKey key : unknown) {
+         Post post = loaded == null ? null : loaded.get(key);
+         if (post != null)
+            posts.put(key, post);
+         else
+            missing.put(key, Boolean.TRUE);
+      }
+      return posts;
+   }
+
+   private static Map<CacheKey, Post> loadEach(PostLoader loader, Set<CacheKey> keys) {
+      Map<CacheKey, Post> posts = new HashMap<>();
+      for (CacheKey key : keys) {
+         Post post = loader.load(key);
+         if (post != null)
+            posts.put(key, post);
+      }
+      return posts;
+   }
+
+   private static Post loadFromStore(CacheKey key) {
+      // TODO DB에서 읽어오거나 REST API를 통해 읽어올 수 있습니다.
+      Post post = new Post();
+      post.setId(key.getValue());
+      return post;
    }
 }
@@ -0,0 +1,198 @@
+package effective.code.chapter01.item07.cache;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 재시작할 때 캐시를 미리 채우기 위한 글 스냅숏 파일.
+ *
+ * <pre>
+ * int magic, int version, int count
+ * count 번: long writtenAt (epoch millis), int length, byte[length] 글
+ * 글: int id, string title, string content  (string = int 길이(null 이면 -1) + UTF-8)
+ * </pre>
+ *
+ * 쓰인 시각을 글 앞에 두어서, 읽을 때 오래된 글은 풀지 않고 건너뛴다.
+ * 파일은 순서대로 흘려 읽고, 글을 푸는 일과 캐시에 담는 일은 CHUNK_SIZE 개씩 묶어 공용 풀에서 나눠 한다.
+ */
+final class PostSnapshot {
+
+   static final int MAGIC = 0x504F5354; // "POST"
+   static final int VERSION = 1;
+
+   private static final int CHUNK_SIZE = 256;
+   private static final int MAX_PENDING_CHUNKS = Runtime.getRuntime().availableProcessors() * 2;
+
+   private PostSnapshot() {
+      throw new AssertionError();
+   }
+
+   /**
+    * 임시 파일에 다 쓴 뒤 옮기므로, 쓰다가 죽어도 이전 스냅숏이 깨지지 않는다.
+    */
+   static int write(List<BoundedCache.HotEntry<CacheKey, Post>> entries, Path target) throws IOException {
+      Path temp = Files.createTempFile(target.toAbsolutePath().getParent(), target.getFileName().toString(), ".tmp");
+      try {
+         long now = System.currentTimeMillis();
+         ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+         DataOutputStream record = new DataOutputStream(buffer);
+         try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temp)))) {
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(entries.size());
+            for (BoundedCache.HotEntry<CacheKey, Post> entry : entries) {
+               buffer.reset();
+               Post post = entry.getValue();
+               record.writeInt(entry.getKey().getValue());
+               writeString(record, post.getTitle());
+               writeString(record, post.getContent());
+
+               out.writeLong(now - entry.getAge().toMillis());
+               out.writeInt(buffer.size());
+               buffer.writeTo(out);
+            }
+         }
+         Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+      } finally {
+         Files.deleteIfExists(temp);
+      }
+      return entries.size();
+   }
+
+   /**
+    * maxAge 보다 오래전에 쓰인 글은 건너뛰고 나머지를 원래 나이 그대로 캐시에 담는다. 담은 글 수를 돌려준다.
+    * maxAge 가 음수면 IllegalArgumentException 을 던진다.
+    */
+   static int read(Path source, Duration maxAge, BoundedCache<CacheKey, Post> cache) throws IOException {
+      if (maxAge.isNegative())
+         throw new IllegalArgumentException("maxAge: " + maxAge);
+
+      long now = System.currentTimeMillis();
+      long cutoff = now - maxAge.toMillis();
+      AtomicInteger loaded = new AtomicInteger();
+      Semaphore permits = new Semaphore(MAX_PENDING_CHUNKS);
+      List<CompletableFuture<Void>> pending = new ArrayList<>();
+
+      try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(source)))) {
+         if (in.readInt() != MAGIC)
+            throw new IOException("스냅숏 파일이 아닙니다: " + source);
+         int version = in.readInt();
+         if (version != VERSION)
+            throw new IOException("지원하지 않는 스냅숏 버전입니다: " + version);
+
+         int count = in.readInt();
+         long[] writtenAt = new long[CHUNK_SIZE];
+         byte[][] records = new byte[CHUNK_SIZE][];
+         int size = 0;
+         for (int i = 0; i < count; i++) {
+            long time = in.readLong();
+            int length = in.readInt();
+            if (time < cutoff) {
+               skipFully(in, length);
+               continue;
+            }
+            writtenAt[size] = time;
+            records[size] = new byte[length];
+            in.readFully(records[size]);
+            if (++size == CHUNK_SIZE) {
+               pending.add(submit(writtenAt, records, size, now, cache, loaded, permits));
+               writtenAt = new long[CHUNK_SIZE];
+               records = new byte[CHUNK_SIZE][];
+               size = 0;
+            }
+         }
+         if (size > 0)
+            pending.add(submit(writtenAt, records, size, now, cache, loaded, permits));
+      } catch (IOException | RuntimeException e) {
+         // 이미 맡긴 묶음이 끝날 때까지는 기다렸다가 읽기 오류를 알린다.
+         pending.forEach(future -> future.exceptionally(t -> null).join());
+         throw e;
+      }
+
+      try {
+         CompletableFuture.allOf(pending.toArray(new CompletableFuture<?>[0])).join();
+      } catch (CompletionException e) {
+         if (e.getCause() instanceof UncheckedIOException)
+            throw ((UncheckedIOException) e.getCause()).getCause();
+         throw e;
+      }
+      return loaded.get();
+   }
+
+   /**
+    * 푸는 쪽이 밀리면 읽는 쪽이 기다리므로, 메모리에 올라와 있는 묶음은 MAX_PENDING_CHUNKS 개를 넘지 않는다.
+    */
+   private static CompletableFuture<Void> submit(long[] writtenAt, byte[][] records, int size, long now,
+                                                 BoundedCache<CacheKey, Post> cache, AtomicInteger loaded, Semaphore permits) {
+      permits.acquireUninterruptibly();
+      return CompletableFuture.runAsync(() -> {
+         try {
+            for (int i = 0; i < size; i++) {
+               Post post = readPost(records[i]);
+               if (cache.put(new CacheKey(post.getId()), post, Duration.ofMillis(Math.max(0, now - writtenAt[i]))))
+                  loaded.incrementAndGet();
+            }
+         } finally {
+            permits.release();
+         }
+      });
+   }
+
+   private static Post readPost(byte[] record) {
+      try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(record))) {
+         Post post = new Post();
+         post.setId(in.readInt());
+         post.setTitle(readString(in));
+         post.setContent(readString(in));
+         return post;
+      } catch (IOException e) {
+         throw new UncheckedIOException(e);
+      }
+   }
+
+   private static void writeString(DataOutputStream out, String value) throws IOException {
+      if (value == null) {
+         out.writeInt(-1);
+         return;
+      }
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      out.writeInt(bytes.length);
+      out.write(bytes);
+   }
+
+   private static String readString(DataInputStream in) throws IOException {
+      int length = in.readInt();
+      if (length < 0)
+         return null;
+      byte[] bytes = new byte[length];
+      in.readFully(bytes);
+      return new String(bytes, StandardCharsets.UTF_8);
+   }
+
+   private static void skipFully(DataInputStream in, int length) throws IOException {
+      while (length > 0) {
+         int skipped = in.skipBytes(length);
+         if (skipped <= 0)
+            throw new EOFException();
+         length -= skipped;
+      }
+   }
+}
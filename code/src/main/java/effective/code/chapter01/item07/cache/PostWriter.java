@@ -0,0 +1,12 @@
+package effective.code.chapter01.item07.cache;
+
+import java.util.Collection;
+
+/**
+ * 바뀐 글을 저장소에 한 번에 쓴다. 예외를 던지면 그 묶음은 다음 비우기 때 다시 쓴다.
+ */
+@FunctionalInterface
+public interface PostWriter {
+
+   void writeAll(Collection<Post> posts);
+}
@@ -0,0 +1,84 @@
+package effective.code.chapter01.item07.cache;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 본 캐시에서 밀려난 값을 SoftReference 로 들고 있는 2차 영역. 메모리가 모자라면 GC 가 먼저 치운다.
+ * GC 가 치운 참조는 ReferenceQueue 로 돌아오므로 맵을 훑지 않고, 큐에 쌓인 것만 한 번에 DRAIN_BATCH 개까지 지운다.
+ */
+final class SoftTier<K, V> {
+
+   private static final int DRAIN_BATCH = 64;
+
+   private final ConcurrentHashMap<K, ValueReference<K, V>> entries = new ConcurrentHashMap<>();
+   private final ReferenceQueue<V> queue = new ReferenceQueue<>();
+   private final LongAdder collected = new LongAdder();
+
+   void put(K key, V value, long writeTime) {
+      drainQueue();
+      ValueReference<K, V> previous = entries.put(key, new ValueReference<>(key, value, writeTime, queue));
+      if (previous != null)
+         previous.clear();
+   }
+
+   /**
+    * 꺼내면서 지운다. GC 가 이미 치웠으면 null.
+    */
+   ValueReference<K, V> remove(K key) {
+      drainQueue();
+      ValueReference<K, V> reference = entries.remove(key);
+      return reference == null || reference.get() == null ? null : reference;
+   }
+
+   void invalidate(K key) {
+      ValueReference<K, V> reference = entries.remove(key);
+      if (reference != null)
+         reference.clear();
+   }
+
+   void clear() {
+      entries.values().forEach(Reference::clear);
+      entries.clear();
+   }
+
+   /**
+    * 아직 큐로 돌아오지 않은 참조도 세므로 어림값이다.
+    */
+   long estimatedSize() {
+      drainQueue();
+      return entries.mappingCount();
+   }
+
+   long collectedCount() {
+      return collected.sum();
+   }
+
+   @SuppressWarnings("unchecked")
+   private void drainQueue() {
+      for (int i = 0; i < DRAIN_BATCH; i++) {
+         ValueReference<K, V> reference = (ValueReference<K, V>) queue.poll();
+         if (reference == null)
+            return;
+         if (entries.remove(reference.key, reference))
+            collected.increment();
+      }
+   }
+
+   /**
+    * 큐에서 돌아왔을 때 어느 키를 지울지 알 수 있도록 키를 함께 든다.
+    */
+   static final class ValueReference<K, V> extends SoftReference<V> {
+      final K key;
+      final long writeTime;
+
+      ValueReference(K key, V value, long writeTime, ReferenceQueue<? super V> queue) {
+         super(value, queue);
+         this.key = key;
+         this.writeTime = writeTime;
+      }
+   }
+}
@@ -0,0 +1,15 @@
+package effective.code.chapter01.item07.cache;
+
+/**
+ * 캐시가 시간을 재는 시계. 나노초 단위이며 실제 시각과는 관계없는 값이다.
+ * 테스트에서는 직접 움직이는 시계로 바꿔 끼울 수 있다.
+ */
+@FunctionalInterface
+public interface Ticker {
+
+   long read();
+
+   static Ticker systemTicker() {
+      return System::nanoTime;
+   }
+}
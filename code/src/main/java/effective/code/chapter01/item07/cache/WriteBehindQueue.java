@@ -0,0 +1,242 @@
+package effective.code.chapter01.item07.cache;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 글 수정을 모았다가 {@link PostWriter} 에 묶음으로 쓰는 쓰기 지연 대기열.
+ *
+ * <ul>
+ *    <li>같은 글 번호의 수정은 마지막 것 하나로 합친다.</li>
+ *    <li>대기 중인 글이 batchSize 개가 되거나 flushInterval 이 지나면 전용 스레드가 비운다.</li>
+ *    <li>대기 중인 글은 maxPending 개까지만 둔다. 가득 차면 새 글 번호를 넣는 쪽이 자리가 날 때까지 기다린다.</li>
+ *    <li>한 번에 batchSize 개까지만 쓴다. 쓰기에 실패한 묶음은 되돌려 놓고 다음에 다시 쓴다. 그사이 더 새로운 수정이 들어왔으면 그쪽을 쓴다.</li>
+ *    <li>close 는 남은 글을 모두 쓰고 나서 돌아온다.</li>
+ * </ul>
+ */
+public class WriteBehindQueue implements AutoCloseable {
+
+   public static final int DEFAULT_BATCH_SIZE = 100;
+   public static final Duration DEFAULT_FLUSH_INTERVAL = Duration.ofSeconds(1);
+   public static final int DEFAULT_MAX_PENDING = 10_000;
+   private static final Duration ENQUEUE_TIMEOUT = Duration.ofSeconds(5);
+
+   private final PostWriter writer;
+   private final int batchSize;
+   private final Semaphore capacity;
+   private final ScheduledExecutorService flusher;
+   private final AtomicBoolean flushRequested = new AtomicBoolean();
+   private final Object flushLock = new Object();
+
+   // 아래 두 맵은 this 로 잠그고 다룬다. 글 번호 하나가 대기열 자리 하나를 차지한다.
+   private Map<Integer, Post> pending = new LinkedHashMap<>();
+   private Map<Integer, Post> flushing = Map.of();
+   private boolean closed;
+
+   private final LongAdder written = new LongAdder();
+   private final LongAdder coalesced = new LongAdder();
+   private final LongAdder failedFlushes = new LongAdder();
+
+   public WriteBehindQueue(PostWriter writer) {
+      this(writer, DEFAULT_BATCH_SIZE, DEFAULT_FLUSH_INTERVAL, DEFAULT_MAX_PENDING);
+   }
+
+   public WriteBehindQueue(PostWriter writer, int batchSize, Duration flushInterval, int maxPending) {
+      if (batchSize < 1 || maxPending < batchSize)
+         throw new IllegalArgumentException("batchSize: " + batchSize + ", maxPending: " + maxPending);
+      if (flushInterval.isNegative() || flushInterval.isZero())
+         throw new IllegalArgumentException("flushInterval: " + flushInterval);
+
+      this.writer = writer;
+      this.batchSize = batchSize;
+      this.capacity = new Semaphore(maxPending);
+      this.flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+         Thread thread = new Thread(runnable, "post-write-behind");
+         thread.setDaemon(true);
+         return thread;
+      });
+      long interval = flushInterval.toNanos();
+      flusher.scheduleWithFixedDelay(this::flushQuietly, interval, interval, TimeUnit.NANOSECONDS);
+   }
+
+   /**
+    * 대기열이 가득 차 있으면 자리가 날 때까지 기다리고, 끝내 자리가 나지 않으면 IllegalStateException 을 던진다.
+    */
+   public void enqueue(Post post) {
+      enqueue(post, () -> {});
+   }
+
+   /**
+    * whileQueued 는 글을 대기열에 넣는 것과 같은 잠금 안에서 돈다.
+    * 같은 글 번호를 동시에 저장해도 whileQueued 가 도는 순서와 대기열에 남는 순서가 어긋나지 않는다.
+    */
+   public void enqueue(Post post, Runnable whileQueued) {
+      Integer id = post.getId();
+      synchronized (this) {
+         if (closed)
+            throw new IllegalStateException("이미 닫혔습니다.");
+         if (pending.containsKey(id)) {
+            pending.put(id, post);
+            coalesced.increment();
+            whileQueued.run();
+            return;
+         }
+      }
+
+      acquire();
+      int size;
+      synchronized (this) {
+         if (closed) {
+            capacity.release();
+            throw new IllegalStateException("이미 닫혔습니다.");
+         }
+         if (pending.put(id, post) != null) {
+            capacity.release(); // 기다리는 사이 다른 스레드가 같은 글 번호로 자리를 잡았다.
+            coalesced.increment();
+         }
+         size = pending.size();
+         whileQueued.run();
+      }
+      if (size >= batchSize && flushRequested.compareAndSet(false, true))
+         flusher.execute(this::flushQuietly);
+   }
+
+   /**
+    * 아직 저장소에 쓰지 않은 수정. 없으면 null.
+    */
+   public synchronized Post pendingPost(Integer id) {
+      Post post = pending.get(id);
+      return post != null ? post : flushing.get(id);
+   }
+
+   /**
+    * 지금 대기 중인 글을 batchSize 개씩 나눠 쓴다. 쓰기에 실패하면 그 묶음만 되돌려 놓고 예외를 그대로 던진다.
+    * 앞서 쓴 묶음은 그대로 두고, 아직 쓰지 않은 글은 대기열에 남는다.
+    */
+   public void flush() {
+      synchronized (flushLock) {
+         flushRequested.set(false);
+         int remaining;
+         synchronized (this) {
+            remaining = pending.size();
+         }
+         while (remaining > 0) {
+            Map<Integer, Post> batch = nextBatch();
+            if (batch.isEmpty())
+               return;
+            remaining -= batch.size();
+
+            try {
+               writer.writeAll(new ArrayList<>(batch.values()));
+            } catch (RuntimeException | Error e) {
+               failedFlushes.increment();
+               requeue(batch);
+               throw e;
+            }
+            written.add(batch.size());
+            synchronized (this) {
+               flushing = Map.of();
+            }
+            capacity.release(batch.size());
+         }
+      }
+   }
+
+   public synchronized int pendingCount() {
+      return pending.size() + flushing.size();
+   }
+
+   public long writtenCount() {
+      return written.sum();
+   }
+
+   /**
+    * 이미 대기 중인 글 번호에 합쳐진 수정 수.
+    */
+   public long coalescedCount() {
+      return coalesced.sum();
+   }
+
+   public long failedFlushCount() {
+      return failedFlushes.sum();
+   }
+
+   /**
+    * 새 수정을 더 받지 않고, 남은 글을 모두 쓴 뒤 비우는 스레드를 멈춘다.
+    */
+   @Override
+   public void close() {
+      synchronized (this) {
+         if (closed)
+            return;
+         closed = true;
+      }
+      flusher.shutdown();
+      try {
+         flusher.awaitTermination(1, TimeUnit.MINUTES);
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+      }
+      flush();
+   }
+
+   private void acquire() {
+      try {
+         if (!capacity.tryAcquire(ENQUEUE_TIMEOUT.toNanos(), TimeUnit.NANOSECONDS))
+            throw new IllegalStateException("쓰기 대기열이 가득 찼습니다.");
+      } catch (InterruptedException e) {
+         Thread.currentThread().interrupt();
+         throw new IllegalStateException("쓰기 대기열 자리를 기다리다 인터럽트되었습니다.", e);
+      }
+   }
+
+   /**
+    * 대기열 앞쪽에서 batchSize 개까지 꺼내 쓰는 중인 묶음으로 옮긴다.
+    */
+   private synchronized Map<Integer, Post> nextBatch() {
+      Map<Integer, Post> batch = new LinkedHashMap<>();
+      Iterator<Map.Entry<Integer, Post>> iterator = pending.entrySet().iterator();
+      while (iterator.hasNext() && batch.size() < batchSize) {
+         Map.Entry<Integer, Post> entry = iterator.next();
+         batch.put(entry.getKey(), entry.getValue());
+         iterator.remove();
+      }
+      flushing = batch;
+      return batch;
+   }
+
+   /**
+    * 실패한 글을 되돌려 놓되, 그사이 같은 글 번호로 들어온 더 새 수정이 있으면 그쪽을 남기고 자리를 하나 돌려준다.
+    */
+   private void requeue(Map<Integer, Post> batch) {
+      int superseded = 0;
+      synchronized (this) {
+         Map<Integer, Post> merged = new LinkedHashMap<>(batch);
+         for (Map.Entry<Integer, Post> entry : pending.entrySet()) {
+            if (merged.put(entry.getKey(), entry.getValue()) != null)
+               superseded++;
+         }
+         pending = merged;
+         flushing = Map.of();
+      }
+      capacity.release(superseded);
+   }
+
+   private void flushQuietly() {
+      try {
+         flush();
+      } catch (RuntimeException | Error e) {
+         // 글은 되돌려 놓았으니 다음 주기에 다시 쓴다. 실패 횟수는 failedFlushCount 로 본다.
+         // 여기서 던지면 scheduleWithFixedDelay 가 이후 주기를 모두 취소한다.
+      }
+   }
+}
@@ -1,28 +1,158 @@
 package effective.code.chapter01.item07.listener;
 
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
 import java.lang.ref.WeakReference;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
 
+/**
+ * 사용자를 약한 참조로 들고 있는 채팅방. 채팅방에 들어 있다는 이유만으로 사용자가 GC 되지 못하는 일은 없다.
+ *
+ * <ul>
+ *    <li>목록은 CopyOnWriteArrayList 라서 메시지를 보낼 때는 잠그지 않은 스냅숏을 돈다. 들어오고 나가는 쪽과 서로 막지 않는다.</li>
+ *    <li>GC 가 치운 사용자의 참조는 ReferenceQueue 로 돌아온다. 목록을 훑지 않고 큐에 돌아온 것만 모아서 한 번에 지운다.</li>
+ *    <li>executor 를 주고 만들면 사용자마다 크기 제한 우편함을 두고 비동기로 전달한다. 느린 사용자가 방 전체를 늦추지 않는다.</li>
+ * </ul>
+ */
 public class ChatRoom {
 
-   private List<WeakReference<User>> users;
+   private final List<UserReference> users = new CopyOnWriteArrayList<>();
+   private final ReferenceQueue<User> collected = new ReferenceQueue<>();
+   private final Executor executor;
+   private final int mailboxCapacity;
+   private final OverflowPolicy overflowPolicy;
+   private final DeliveryStats deliveryStats = new DeliveryStats();
 
+   /**
+    * sendMessage 를 부른 스레드에서 바로 전달한다.
+    */
    public ChatRoom() {
-      this.users = new ArrayList<>();
+      this.executor = null;
+      this.mailboxCapacity = 0;
+      this.overflowPolicy = null;
+   }
+
+   /**
+    * 사용자마다 mailboxCapacity 크기의 우편함을 두고 executor 에서 전달한다. 우편함이 차면 overflowPolicy 를 따른다.
+    */
+   public ChatRoom(Executor executor, int mailboxCapacity, OverflowPolicy overflowPolicy) {
+      if (mailboxCapacity < 1)
+         throw new IllegalArgumentException("mailboxCapacity: " + mailboxCapacity);
+      this.executor = Objects.requireNonNull(executor);
+      this.mailboxCapacity = mailboxCapacity;
+      this.overflowPolicy = Objects.requireNonNull(overflowPolicy);
    }
 
    public void addUser(User user) {
-      this.users.add(new WeakReference<>(user));
+      pruneCollected();
+      UserReference reference = new UserReference(user, collected);
+      if (executor != null)
+         reference.mailbox = new Mailbox(reference, mailboxCapacity, overflowPolicy, executor, deliveryStats);
+      users.add(reference);
    }
 
+   public boolean removeUser(User user) {
+      pruneCollected();
+      boolean removed = false;
+      for (UserReference reference : users) {
+         if (reference.get() == user && users.remove(reference)) {
+            reference.close();
+            removed = true;
+         }
+      }
+      return removed;
+   }
+
+   /**
+    * 아직 큐로 돌아오지 않았지만 이미 치워진 사용자는 건너뛴다.
+    * 비동기로 만들었으면 우편함에 넣기만 하고 돌아온다. BLOCK 정책이면 우편함에 자리가 날 때까지 기다릴 수 있다.
+    */
    public void sendMessage(String message) {
-      users.forEach(wr -> Objects.requireNonNull(wr.get()).receive(message));
+      pruneCollected();
+      for (UserReference reference : users) {
+         if (reference.mailbox != null) {
+            reference.mailbox.post(message);
+            continue;
+         }
+         User user = reference.get();
+         if (user != null)
+            user.receive(message);
+      }
    }
 
+   /**
+    * 지금 살아 있는 사용자들의 참조 스냅숏.
+    */
    public List<WeakReference<User>> getUsers() {
-      ChatRoom localChat = new ChatRoom();
-      return users;
+      pruneCollected();
+      List<WeakReference<User>> snapshot = new ArrayList<>(users.size());
+      for (UserReference reference : users) {
+         if (reference.get() != null)
+            snapshot.add(reference);
+      }
+      return snapshot;
+   }
+
+   public DeliveryStats getDeliveryStats() {
+      return deliveryStats;
+   }
+
+   /**
+    * 모든 우편함에 쌓여 있는 메시지 수.
+    */
+   public int getQueueDepth() {
+      int depth = 0;
+      for (UserReference reference : users) {
+         if (reference.mailbox != null)
+            depth += reference.mailbox.depth();
+      }
+      return depth;
+   }
+
+   /**
+    * 가장 많이 밀린 우편함의 메시지 수.
+    */
+   public int getMaxQueueDepth() {
+      int max = 0;
+      for (UserReference reference : users) {
+         if (reference.mailbox != null)
+            max = Math.max(max, reference.mailbox.depth());
+      }
+      return max;
+   }
+
+   /**
+    * 지울 때마다 배열을 복사하므로 돌아온 참조를 모아서 한 번에 지운다.
+    */
+   private void pruneCollected() {
+      Reference<? extends User> reference = collected.poll();
+      if (reference == null)
+         return;
+
+      List<UserReference> dead = new ArrayList<>();
+      do {
+         UserReference userReference = (UserReference) reference;
+         userReference.close();
+         dead.add(userReference);
+      } while ((reference = collected.poll()) != null);
+      users.removeAll(dead);
+   }
+
+   private static final class UserReference extends WeakReference<User> {
+      // 비동기로 만든 방에서만 쓴다. 우편함은 사용자를 이 약한 참조로만 본다.
+      Mailbox mailbox;
+
+      UserReference(User user, ReferenceQueue<? super User> queue) {
+         super(user, queue);
+      }
+
+      void close() {
+         if (mailbox != null)
+            mailbox.close();
+      }
    }
 }
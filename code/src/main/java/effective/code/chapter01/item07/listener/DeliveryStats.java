@@ -0,0 +1,72 @@
+package effective.code.chapter01.item07.listener;
+
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 비동기 전달 통계. 지연 시간은 우편함에 넣은 때부터 receive 가 끝날 때까지다.
+ */
+public class DeliveryStats {
+
+   private final LongAdder delivered = new LongAdder();
+   private final LongAdder dropped = new LongAdder();
+   private final LongAdder failed = new LongAdder();
+   private final LongAdder totalLatency = new LongAdder();
+   private final LongAccumulator maxLatency = new LongAccumulator(Math::max, 0);
+
+   void recordDelivery(long latencyNanos) {
+      delivered.increment();
+      totalLatency.add(latencyNanos);
+      maxLatency.accumulate(latencyNanos);
+   }
+
+   void recordDrop() {
+      dropped.increment();
+   }
+
+   void recordDrops(int count) {
+      dropped.add(count);
+   }
+
+   void recordFailure() {
+      failed.increment();
+   }
+
+   public long deliveredCount() {
+      return delivered.sum();
+   }
+
+   /**
+    * 우편함이 넘쳤거나 받을 사용자가 사라져서 버린 메시지 수.
+    */
+   public long droppedCount() {
+      return dropped.sum();
+   }
+
+   /**
+    * receive 가 예외를 던진 수.
+    */
+   public long failedCount() {
+      return failed.sum();
+   }
+
+   public double averageLatencyNanos() {
+      long count = delivered.sum();
+      return count == 0 ? 0.0 : (double) totalLatency.sum() / count;
+   }
+
+   public long maxLatencyNanos() {
+      return maxLatency.get();
+   }
+
+   @Override
+   public String toString() {
+      return "DeliveryStats{" +
+            "delivered=" + deliveredCount() +
+            ", dropped=" + droppedCount() +
+            ", failed=" + failedCount() +
+            ", averageLatency=" + (long) averageLatencyNanos() + "ns" +
+            ", maxLatency=" + maxLatencyNanos() + "ns" +
+            '}';
+   }
+}
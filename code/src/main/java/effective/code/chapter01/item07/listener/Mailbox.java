@@ -0,0 +1,133 @@
+package effective.code.chapter01.item07.listener;
+
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 사용자 한 명의 크기 제한 우편함. 한 번에 한 스레드만 비우므로 사용자는 메시지를 보낸 순서대로 하나씩 받는다.
+ * 한 번 비울 때 DRAIN_BATCH 개까지만 전달하고 executor 에 다시 맡겨서, 메시지가 많은 사용자가 스레드를 붙잡고 있지 않게 한다.
+ * 사용자는 약한 참조로만 들고 있다.
+ */
+final class Mailbox {
+
+   private static final int DRAIN_BATCH = 32;
+
+   private final WeakReference<User> user;
+   private final BlockingQueue<Envelope> queue;
+   private final OverflowPolicy policy;
+   private final Executor executor;
+   private final DeliveryStats stats;
+   private final AtomicBoolean scheduled = new AtomicBoolean();
+   private volatile boolean closed;
+
+   Mailbox(WeakReference<User> user, int capacity, OverflowPolicy policy, Executor executor, DeliveryStats stats) {
+      this.user = user;
+      this.queue = new ArrayBlockingQueue<>(capacity);
+      this.policy = policy;
+      this.executor = executor;
+      this.stats = stats;
+   }
+
+   void post(String message) {
+      if (closed) {
+         stats.recordDrop();
+         return;
+      }
+
+      Envelope envelope = new Envelope(message, System.nanoTime());
+      switch (policy) {
+         case DROP_OLDEST:
+            while (!queue.offer(envelope)) {
+               if (queue.poll() != null)
+                  stats.recordDrop();
+            }
+            break;
+         case DROP_NEWEST:
+            if (!queue.offer(envelope)) {
+               stats.recordDrop();
+               return;
+            }
+            break;
+         case BLOCK:
+            try {
+               queue.put(envelope);
+            } catch (InterruptedException e) {
+               Thread.currentThread().interrupt();
+               stats.recordDrop();
+               return;
+            }
+            break;
+      }
+      schedule();
+   }
+
+   int depth() {
+      return queue.size();
+   }
+
+   /**
+    * 남은 메시지를 버린다. BLOCK 으로 기다리던 쪽도 풀려난다.
+    */
+   void close() {
+      closed = true;
+      discardAll();
+   }
+
+   private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+         try {
+            executor.execute(this::drain);
+         } catch (RejectedExecutionException e) {
+            scheduled.set(false);
+            discardAll();
+         }
+      }
+   }
+
+   private void drain() {
+      try {
+         User receiver = user.get();
+         if (receiver == null || closed) {
+            discardAll();
+            return;
+         }
+         for (int i = 0; i < DRAIN_BATCH; i++) {
+            Envelope envelope = queue.poll();
+            if (envelope == null)
+               break;
+            try {
+               receiver.receive(envelope.message);
+               stats.recordDelivery(System.nanoTime() - envelope.postedAt);
+            } catch (RuntimeException e) {
+               stats.recordFailure();
+            }
+         }
+      } finally {
+         scheduled.set(false);
+      }
+      // 비우는 사이 새로 들어온 메시지가 있으면 다시 맡긴다.
+      if (!queue.isEmpty())
+         schedule();
+   }
+
+   private void discardAll() {
+      int count = 0;
+      while (queue.poll() != null)
+         count++;
+      stats.recordDrops(count);
+   }
+
+   private static final class Envelope {
+      final String message;
+      final long postedAt;
+
+      Envelope(String message, long postedAt) {
+         this.message = message;
+         this.postedAt = postedAt;
+      }
+   }
+}
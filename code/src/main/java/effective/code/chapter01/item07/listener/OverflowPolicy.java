@@ -0,0 +1,22 @@
+package effective.code.chapter01.item07.listener;
+
+/**
+ * 사용자 우편함이 가득 찼을 때 새 메시지를 어떻게 할지.
+ */
+public enum OverflowPolicy {
+
+   /**
+    * 가장 오래된 메시지를 버리고 새 메시지를 넣는다.
+    */
+   DROP_OLDEST,
+
+   /**
+    * 새 메시지를 버린다.
+    */
+   DROP_NEWEST,
+
+   /**
+    * 자리가 날 때까지 보내는 쪽이 기다린다. 느린 사용자 하나가 방 전체를 늦출 수 있다.
+    */
+   BLOCK
+}
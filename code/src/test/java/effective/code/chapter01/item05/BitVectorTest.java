@@ -0,0 +1,61 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BitVectorTest {
+
+   @Test
+   void rankAndSelect() {
+      Random random = new Random(3);
+      boolean[] bits = new boolean[5_000]; // 512비트 블록과 64비트 워드 경계를 여러 번 넘는다.
+      BitVector.Builder builder = new BitVector.Builder();
+      for (int i = 0; i < bits.length; i++) {
+         bits[i] = random.nextInt(3) == 0;
+         builder.append(bits[i]);
+      }
+      BitVector vector = builder.build();
+
+      List<Long> zeros = new ArrayList<>();
+      long ones = 0;
+      for (int i = 0; i <= bits.length; i++) {
+         assertEquals(ones, vector.rank1(i), "rank1(" + i + ")");
+         assertEquals(i - ones, vector.rank0(i));
+         if (i == bits.length)
+            break;
+         assertEquals(bits[i], vector.get(i));
+         if (bits[i])
+            ones++;
+         else
+            zeros.add((long) i);
+      }
+      for (int k = 0; k < zeros.size(); k++)
+         assertEquals((long) zeros.get(k), vector.select0(k), "select0(" + k + ")");
+      assertEquals(bits.length, vector.length());
+      assertEquals(ones, vector.ones());
+   }
+
+   @Test
+   void wordBoundaries() {
+      BitVector.Builder builder = new BitVector.Builder();
+      for (int i = 0; i < 1_100; i++)
+         builder.append(i % 64 != 63); // 워드마다 마지막 비트만 0
+      BitVector vector = builder.build();
+
+      assertEquals(0, vector.rank1(0));
+      assertEquals(63, vector.rank1(63));
+      assertEquals(63, vector.rank1(64));
+      assertEquals(64, vector.rank1(65));
+      assertEquals(504, vector.rank1(512)); // 첫 블록이 끝나는 자리
+      assertEquals(63, vector.select0(0));
+      assertEquals(127, vector.select0(1));
+      assertEquals(511, vector.select0(7));
+      assertEquals(575, vector.select0(8)); // 둘째 블록의 첫 0
+      assertThrows(IndexOutOfBoundsException.class, () -> vector.select0(1_000));
+   }
+}
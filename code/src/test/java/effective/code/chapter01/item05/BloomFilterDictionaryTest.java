@@ -0,0 +1,91 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BloomFilterDictionaryTest {
+
+   @Test
+   void noFalseNegatives() {
+      List<String> words = randomWords(new Random(1), 20_000);
+      BloomFilterDictionary dictionary = BloomFilterDictionary.of(words, TrieDictionary::new, 10);
+
+      for (String word : words) {
+         assertTrue(dictionary.contains(word), word);
+         String text = "[" + word + "]";
+         assertTrue(dictionary.contains(text, 1, text.length() - 1), word);
+      }
+      assertEquals(0, dictionary.getFalsePositives());
+   }
+
+   @Test
+   void falsePositiveRateNearExpected() {
+      Random random = new Random(2);
+      List<String> words = randomWords(random, 20_000);
+      BloomFilterDictionary dictionary = BloomFilterDictionary.of(words, TrieDictionary::new, 10);
+      Set<String> known = new HashSet<>(words);
+
+      int queries = 0;
+      while (queries < 200_000) {
+         String word = randomWord(random);
+         if (known.contains(word))
+            continue;
+         assertFalse(dictionary.contains(word));
+         queries++;
+      }
+
+      double expected = dictionary.expectedFalsePositiveRate(); // 비트 10개, 해시 7개면 약 0.8%
+      double measured = dictionary.measuredFalsePositiveRate();
+      assertTrue(measured > expected * 0.7 && measured < expected * 1.3, "measured " + measured + ", expected " + expected);
+   }
+
+   @Test
+   void bypassesFilterAfterReload() {
+      AtomicLong version = new AtomicLong();
+      Set<String> words = new HashSet<>(Set.of("the", "quick"));
+      BloomFilterDictionary dictionary = BloomFilterDictionary.of(words, w -> new Dictionary() {
+         @Override
+         public boolean contains(String word) {
+            return words.contains(word);
+         }
+
+         @Override
+         public List<String> closeWordsTo(String typo) {
+            return List.of();
+         }
+
+         @Override
+         public long version() {
+            return version.get();
+         }
+      }, 10);
+
+      words.add("fox"); // 필터를 만든 뒤 사전에 들어온 단어
+      version.incrementAndGet();
+
+      assertEquals(1, dictionary.version());
+      assertTrue(dictionary.contains("fox"));
+   }
+
+   private static List<String> randomWords(Random random, int count) {
+      Set<String> words = new HashSet<>();
+      while (words.size() < count)
+         words.add(randomWord(random));
+      return new ArrayList<>(words);
+   }
+
+   private static String randomWord(Random random) {
+      char[] chars = new char[4 + random.nextInt(6)];
+      for (int i = 0; i < chars.length; i++)
+         chars[i] = (char) ('a' + random.nextInt(26));
+      return new String(chars);
+   }
+}
@@ -0,0 +1,102 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CachingDictionaryTest {
+
+   @Test
+   void hitsMissesAndEvictions() {
+      AtomicInteger lookups = new AtomicInteger();
+      Dictionary dictionary = new Dictionary() {
+         @Override
+         public boolean contains(String word) {
+            return false;
+         }
+
+         @Override
+         public List<String> closeWordsTo(String typo) {
+            lookups.incrementAndGet();
+            return List.of(typo + "!");
+         }
+      };
+      CachingDictionary cache = new CachingDictionary(dictionary, 2, 1);
+
+      assertEquals(List.of("a!"), cache.closeWordsTo("a"));
+      assertEquals(List.of("a!"), cache.closeWordsTo("a"));
+      assertEquals(1, cache.getHitCount());
+      assertEquals(1, cache.getMissCount());
+
+      cache.closeWordsTo("b");
+      cache.closeWordsTo("c"); // 가장 오래 안 쓴 "a" 가 밀려남
+      assertEquals(1, cache.getEvictionCount());
+      assertEquals(2, cache.size());
+
+      cache.closeWordsTo("a");
+      assertEquals(4, cache.getMissCount());
+      assertEquals(4, lookups.get());
+   }
+
+   @Test
+   void versionChangeInvalidates() {
+      AtomicLong version = new AtomicLong();
+      Dictionary dictionary = new Dictionary() {
+         @Override
+         public boolean contains(String word) {
+            return false;
+         }
+
+         @Override
+         public List<String> closeWordsTo(String typo) {
+            return List.of(typo + version.get());
+         }
+
+         @Override
+         public long version() {
+            return version.get();
+         }
+      };
+      CachingDictionary cache = new CachingDictionary(dictionary, 10, 1);
+
+      assertEquals(List.of("a0"), cache.closeWordsTo("a"));
+      assertEquals(List.of("a0"), cache.closeWordsTo("a"));
+
+      version.incrementAndGet(); // 사전이 바뀜
+      assertEquals(List.of("a1"), cache.closeWordsTo("a"));
+      assertEquals(1, cache.getHitCount());
+      assertEquals(2, cache.getMissCount());
+   }
+
+   @Test
+   void staleResultIsNotServed() {
+      AtomicLong version = new AtomicLong();
+      Dictionary dictionary = new Dictionary() {
+         @Override
+         public boolean contains(String word) {
+            return false;
+         }
+
+         @Override
+         public List<String> closeWordsTo(String typo) {
+            List<String> suggestions = List.of(typo + version.get());
+            version.incrementAndGet(); // 계산하는 사이에 사전이 바뀜
+            return suggestions;
+         }
+
+         @Override
+         public long version() {
+            return version.get();
+         }
+      };
+      CachingDictionary cache = new CachingDictionary(dictionary, 10, 1);
+
+      assertEquals(List.of("a0"), cache.closeWordsTo("a"));
+      assertEquals(List.of("a1"), cache.closeWordsTo("a")); // 옛 버전으로 계산한 결과는 쓰지 않는다.
+      assertEquals(0, cache.getHitCount());
+   }
+}
@@ -0,0 +1,108 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryRegistryTest {
+
+   @Test
+   void loadsOnFirstRequest() {
+      AtomicInteger loads = new AtomicInteger();
+      DictionaryRegistry registry = new DictionaryRegistry(List.of(provider(Locale.ENGLISH, () -> {
+         loads.incrementAndGet();
+         return TrieDictionary.of("effective");
+      })));
+
+      assertEquals(Set.of("en"), registry.availableLanguageTags());
+      assertTrue(registry.loadedLanguageTags().isEmpty()); // 아직 읽지 않음
+      assertEquals(0, loads.get());
+
+      assertTrue(registry.get(Locale.US).orElseThrow().contains("effective")); // en-US 가 없으면 en
+      assertTrue(registry.get(Locale.ENGLISH).isPresent());
+      assertFalse(registry.get(Locale.KOREAN).isPresent());
+
+      assertEquals(Set.of("en"), registry.loadedLanguageTags());
+      assertEquals(1, loads.get());
+   }
+
+   @Test
+   void concurrentRequestsLoadOnce() throws Exception {
+      AtomicInteger loads = new AtomicInteger();
+      CountDownLatch release = new CountDownLatch(1);
+      DictionaryRegistry registry = new DictionaryRegistry(List.of(provider(Locale.ENGLISH, () -> {
+         loads.incrementAndGet();
+         try {
+            release.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         return TrieDictionary.of("effective");
+      })));
+
+      Dictionary[] results = new Dictionary[8];
+      Thread[] threads = new Thread[results.length];
+      for (int i = 0; i < threads.length; i++) {
+         int slot = i;
+         threads[i] = new Thread(() -> results[slot] = registry.get(Locale.ENGLISH).orElseThrow());
+         threads[i].start();
+      }
+
+      // 레지스트리에는 통계가 없으므로 스레드 상태로 확인한다. 하나는 읽는 중에, 나머지는 그 결과를 기다리며
+      // 모두 WAITING 에 들어갔는데도 읽기가 한 번뿐이라면 나머지 일곱은 같은 읽기에 합류한 것이다.
+      long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+      while (!Arrays.stream(threads).allMatch(t -> t.getState() == Thread.State.WAITING)) {
+         assertTrue(System.nanoTime() < deadline, "모든 요청이 기다리기 전에 시간이 지났습니다.");
+         Thread.sleep(1L);
+      }
+      assertEquals(1, loads.get());
+      assertTrue(registry.loadedLanguageTags().isEmpty());
+
+      release.countDown();
+      for (Thread thread : threads)
+         thread.join();
+      for (Dictionary result : results)
+         assertSame(results[0], result);
+      assertEquals(1, loads.get());
+   }
+
+   @Test
+   void failedLoadIsRetried() {
+      AtomicInteger loads = new AtomicInteger();
+      DictionaryRegistry registry = new DictionaryRegistry(List.of(provider(Locale.ENGLISH, () -> {
+         if (loads.incrementAndGet() == 1)
+            throw new StackOverflowError(); // RuntimeException 이 아니어도 자리를 비운다.
+         return TrieDictionary.of("effective");
+      })));
+
+      assertThrows(CompletionException.class, () -> registry.get(Locale.ENGLISH));
+      assertTrue(registry.loadedLanguageTags().isEmpty());
+
+      assertTrue(registry.get(Locale.ENGLISH).orElseThrow().contains("effective")); // 멈추지 않고 다시 읽는다.
+      assertEquals(2, loads.get());
+   }
+
+   private static DictionaryProvider provider(Locale locale, Supplier<Dictionary> loader) {
+      return new DictionaryProvider() {
+         @Override
+         public Locale locale() {
+            return locale;
+         }
+
+         @Override
+         public Dictionary load() {
+            return loader.get();
+         }
+      };
+   }
+}
@@ -0,0 +1,76 @@
+package effective.code.chapter01.item05;
+
+import effective.code.chapter01.item05.dependencyinjection.SpellChecker;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.StringReader;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DocumentCheckerTest {
+
+   private static final TrieDictionary DICTIONARY = TrieDictionary.of("the", "quick", "brown", "fox", "jumps", "over", "lazy", "dog");
+
+   @Test
+   void offsets() {
+      SpellChecker spellChecker = new SpellChecker(() -> DICTIONARY);
+
+      List<Misspelling> misspellings = spellChecker.check("the qiuck brown fox, jumsp over the dgo.", false);
+
+      assertEquals(List.of("4:qiuck", "21:jumsp", "36:dgo"), describe(misspellings));
+      assertTrue(misspellings.get(0).getSuggestions().isEmpty());
+   }
+
+   @Test
+   void wordAcrossChunkBoundary() {
+      // 조각 크기가 4라 "brownn" 한가운데서 나뉘지만, 분할 지점을 단어 끝까지 민다.
+      DocumentChecker checker = new DocumentChecker(DICTIONARY, new ForkJoinPool(2), 4);
+
+      assertEquals(List.of("4:brownn"), describe(checker.check("the brownn fox", false)));
+   }
+
+   @Test
+   void readerAndStream() throws IOException {
+      SpellChecker spellChecker = new SpellChecker(() -> DICTIONARY);
+
+      assertEquals(List.of("4:qiuck"), describe(spellChecker.check(new StringReader("the qiuck fox"), false)));
+      assertEquals(List.of("1:qiuck"), describe(spellChecker.check(Stream.of("the", "qiuck", "fox"), false))); // 단어 순번
+   }
+
+   @Test
+   void suggestions() {
+      SpellChecker spellChecker = new SpellChecker(() -> DICTIONARY);
+
+      List<Misspelling> misspellings = spellChecker.check("the qiuck fox", true);
+
+      assertEquals(1, misspellings.size());
+      assertTrue(misspellings.get(0).getSuggestions().contains("quick"));
+   }
+
+   @Test
+   void chunkedMatchesUnchunked() {
+      StringBuilder text = new StringBuilder();
+      String[] words = {"the", "qiuck", "brown", "fx", "jumps", "ovr", "the", "lazy", "dgo"};
+      for (int i = 0; i < 2_000; i++)
+         text.append(words[i % words.length]).append(i % 7 == 0 ? ", " : " ");
+
+      List<String> expected = describe(new DocumentChecker(DICTIONARY, new ForkJoinPool(1), Integer.MAX_VALUE).check(text, true));
+      ForkJoinPool pool = new ForkJoinPool(4);
+      for (int chunkSize : new int[]{1, 3, 7, 64, 1_000}) {
+         List<Misspelling> chunked = new DocumentChecker(DICTIONARY, pool, chunkSize).check(text, true);
+         assertEquals(expected, describe(chunked), "chunkSize " + chunkSize);
+      }
+      assertEquals(2_000 / words.length * 4 + 1, expected.size()); // 틀린 단어 넷이 되풀이됨
+   }
+
+   private static List<String> describe(List<Misspelling> misspellings) {
+      return misspellings.stream()
+            .map(m -> m.getOffset() + ":" + m.getWord() + (m.getSuggestions().isEmpty() ? "" : m.getSuggestions()))
+            .collect(Collectors.toList());
+   }
+}
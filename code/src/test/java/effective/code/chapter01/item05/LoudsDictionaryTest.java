@@ -0,0 +1,57 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LoudsDictionaryTest {
+
+   @Test
+   void sameAnswersAsTrie() {
+      Random random = new Random(5);
+      Map<String, Integer> frequencies = new HashMap<>();
+      while (frequencies.size() < 3_000)
+         frequencies.put(randomWord(random, 5), 1 + random.nextInt(100));
+      frequencies.put("", 1);
+      LoudsDictionary louds = new LoudsDictionary(frequencies, TrieDictionary.DEFAULT_MAX_DISTANCE);
+      TrieDictionary trie = new TrieDictionary(frequencies, TrieDictionary.DEFAULT_MAX_DISTANCE);
+
+      assertEquals(frequencies.size(), louds.size());
+      for (int i = 0; i < 5_000; i++) {
+         String word = randomWord(random, 5);
+         assertEquals(trie.contains(word), louds.contains(word), word);
+      }
+      for (String word : frequencies.keySet())
+         assertTrue(louds.contains(word), word);
+      for (int i = 0; i < 200; i++) {
+         String typo = randomWord(random, 5);
+         assertEquals(trie.closeWordsTo(typo), louds.closeWordsTo(typo), typo);
+      }
+   }
+
+   @Test
+   void smallerThanHashSet() {
+      Random random = new Random(42);
+      List<String> words = new ArrayList<>();
+      for (int i = 0; i < 50_000; i++)
+         words.add(randomWord(random, 26));
+
+      LoudsDictionary dictionary = new LoudsDictionary(words);
+
+      assertTrue(dictionary.footprintBytes() < LoudsDictionary.estimateHashSetBytes(words) / 2,
+            dictionary.footprintBytes() + " vs " + LoudsDictionary.estimateHashSetBytes(words));
+   }
+
+   private static String randomWord(Random random, int alphabet) {
+      char[] chars = new char[1 + random.nextInt(8)];
+      for (int i = 0; i < chars.length; i++)
+         chars[i] = (char) ('a' + random.nextInt(alphabet));
+      return new String(chars);
+   }
+}
@@ -0,0 +1,73 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MappedDictionaryTest {
+
+   @Test
+   void roundTrip(@TempDir Path dir) throws IOException {
+      Map<String, Integer> frequencies = new HashMap<>();
+      Random random = new Random(7);
+      while (frequencies.size() < 2_000) {
+         char[] chars = new char[2 + random.nextInt(6)];
+         for (int i = 0; i < chars.length; i++)
+            chars[i] = (char) ('a' + random.nextInt(6)); // 접두사를 많이 공유하도록 글자 수를 줄인다.
+         frequencies.put(new String(chars), 1 + random.nextInt(100));
+      }
+      frequencies.put("café", 50);
+      frequencies.put("😀face", 40); // BMP 밖의 글자
+      frequencies.put("ab😀", 30);
+      Path file = dir.resolve("words.dict");
+      DictionaryCompiler.compile(frequencies, file);
+
+      MappedDictionary mapped = MappedDictionary.open(file);
+      TrieDictionary trie = new TrieDictionary(frequencies, TrieDictionary.DEFAULT_MAX_DISTANCE);
+
+      assertEquals(frequencies.size(), mapped.size());
+      for (Map.Entry<String, Integer> e : frequencies.entrySet()) {
+         assertTrue(mapped.contains(e.getKey()), e.getKey());
+         assertEquals((int) e.getValue(), mapped.frequencyOf(e.getKey()));
+      }
+      assertFalse(mapped.contains("zzz"));
+      assertFalse(mapped.contains("😀"));
+
+      for (String typo : List.of("abc", "fedcb", "cafe", "😀fac", "ab😁", "aaaaaaaa", "q"))
+         assertEquals(trie.closeWordsTo(typo), mapped.closeWordsTo(typo), typo); // 접두사를 건너뛰어도 결과가 같다.
+   }
+
+   @Test
+   void rejectsCorruptFile(@TempDir Path dir) throws IOException {
+      Path file = dir.resolve("words.dict");
+      DictionaryCompiler.compile(List.of("the", "quick", "brown", "fox"), file);
+      byte[] bytes = Files.readAllBytes(file);
+
+      Path truncated = dir.resolve("truncated.dict");
+      Files.write(truncated, Arrays.copyOf(bytes, bytes.length - 3));
+      assertThrows(IllegalArgumentException.class, () -> MappedDictionary.open(truncated));
+
+      Path header = dir.resolve("header.dict");
+      Files.write(header, Arrays.copyOf(bytes, 10));
+      assertThrows(IllegalArgumentException.class, () -> MappedDictionary.open(header));
+
+      Path notDictionary = dir.resolve("other.dict");
+      Files.write(notDictionary, "not a dictionary at all".getBytes());
+      assertThrows(IllegalArgumentException.class, () -> MappedDictionary.open(notDictionary));
+
+      bytes[8] = 0x7F; // 단어 수가 망가짐
+      Path corrupt = dir.resolve("corrupt.dict");
+      Files.write(corrupt, bytes);
+      assertThrows(IllegalArgumentException.class, () -> MappedDictionary.open(corrupt));
+   }
+}
@@ -0,0 +1,49 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PhoneticDictionaryTest {
+
+   @Test
+   void phoneticMatchFirstAtSameDistance() {
+      // 둘 다 robirt 에서 거리 1이지만 발음 키(R163)가 같은 쪽은 robert 뿐이다.
+      Map<String, Integer> frequencies = Map.of("robert", 1, "robirs", 1_000);
+      PhoneticDictionary dictionary = new PhoneticDictionary(new TrieDictionary(frequencies, 2), frequencies);
+
+      assertEquals(List.of("robert", "robirs"), dictionary.closeWordsTo("robirt"));
+   }
+
+   @Test
+   void phoneticOnlyCandidate() {
+      // 거리 3이라 트라이는 못 찾지만 발음 색인으로는 찾는다.
+      Map<String, Integer> frequencies = Map.of("rupert", 1);
+      PhoneticDictionary dictionary = new PhoneticDictionary(new TrieDictionary(frequencies, 1), frequencies);
+
+      assertEquals(List.of("rupert"), dictionary.closeWordsTo("robbert"));
+   }
+
+   @Test
+   void capsSuggestions() {
+      Map<String, Integer> frequencies = new HashMap<>();
+      for (char c = 'a'; c <= 'z'; c++) {
+         frequencies.put("ca" + c, 1);
+         frequencies.put("k" + c + "t", 1);
+      }
+      PhoneticDictionary dictionary = new PhoneticDictionary(new TrieDictionary(frequencies, 2), frequencies, 3, 5);
+
+      List<String> suggestions = dictionary.closeWordsTo("cat");
+
+      assertEquals(3, suggestions.size());
+      assertEquals(3, new HashSet<>(suggestions).size());
+      assertEquals("cat", suggestions.get(0));
+      assertEquals(PhoneticDictionary.DEFAULT_MAX_SUGGESTIONS,
+            new PhoneticDictionary(new TrieDictionary(frequencies, 2), frequencies).closeWordsTo("cat").size());
+   }
+}
@@ -0,0 +1,19 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SoundexTest {
+
+   @Test
+   void encode() {
+      assertEquals("R163", Soundex.encode("Robert"));
+      assertEquals("R163", Soundex.encode("Rupert"));
+      assertEquals("A261", Soundex.encode("Ashcraft")); // H 를 사이에 둔 S, C 는 한 번만 센다.
+      assertEquals("T522", Soundex.encode("Tymczak"));
+      assertEquals("P236", Soundex.encode("Pfister")); // 첫 글자와 번호가 같은 F 는 건너뛴다.
+      assertEquals("L000", Soundex.encode("Lee"));
+      assertEquals("", Soundex.encode("123"));
+   }
+}
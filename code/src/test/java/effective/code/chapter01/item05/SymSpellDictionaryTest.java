@@ -0,0 +1,78 @@
+package effective.code.chapter01.item05;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SymSpellDictionaryTest {
+
+   @Test
+   void sameAnswersAsBruteForce() {
+      Random random = new Random(7);
+      Map<String, Integer> frequencies = new HashMap<>();
+      while (frequencies.size() < 2_000)
+         frequencies.put(randomWord(random), 1 + random.nextInt(100));
+
+      for (int maxDistance = 1; maxDistance <= 2; maxDistance++) {
+         SymSpellDictionary dictionary = new SymSpellDictionary(frequencies, maxDistance);
+         for (int i = 0; i < 300; i++) {
+            String typo = randomWord(random);
+            assertEquals(bruteForce(frequencies, typo, maxDistance), dictionary.closeWordsTo(typo),
+                  typo + " (거리 " + maxDistance + ")");
+         }
+      }
+   }
+
+   @Test
+   void ordersByDistanceThenFrequency() {
+      Map<String, Integer> frequencies = Map.of("cat", 5, "cut", 50, "cart", 500, "act", 1, "dog", 1_000);
+      SymSpellDictionary dictionary = new SymSpellDictionary(frequencies, 2);
+
+      // cut 과 cart 는 둘 다 거리 1이라 빈도가 높은 cart 가 앞선다.
+      assertEquals(List.of("cat", "cart", "cut", "act"), dictionary.closeWordsTo("cat"));
+      assertEquals(List.of("cut", "cat"), new SymSpellDictionary(frequencies, 1).closeWordsTo("cot"));
+   }
+
+   private static List<String> bruteForce(Map<String, Integer> frequencies, String typo, int maxDistance) {
+      Map<String, Integer> distances = new HashMap<>();
+      frequencies.keySet().forEach(word -> distances.put(word, levenshtein(typo, word)));
+      List<String> result = new ArrayList<>();
+      distances.forEach((word, distance) -> {
+         if (distance <= maxDistance)
+            result.add(word);
+      });
+      result.sort(Comparator.<String>comparingInt(distances::get)
+            .thenComparing(frequencies::get, Comparator.reverseOrder())
+            .thenComparing(Comparator.naturalOrder()));
+      return result;
+   }
+
+   private static int levenshtein(String a, String b) {
+      int[][] d = new int[a.length() + 1][b.length() + 1];
+      for (int i = 0; i <= a.length(); i++)
+         d[i][0] = i;
+      for (int j = 0; j <= b.length(); j++)
+         d[0][j] = j;
+      for (int i = 1; i <= a.length(); i++) {
+         for (int j = 1; j <= b.length(); j++) {
+            int replace = d[i - 1][j - 1] + (a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1);
+            d[i][j] = Math.min(replace, Math.min(d[i - 1][j], d[i][j - 1]) + 1);
+         }
+      }
+      return d[a.length()][b.length()];
+   }
+
+   private static String randomWord(Random random) {
+      char[] chars = new char[1 + random.nextInt(7)];
+      for (int i = 0; i < chars.length; i++)
+         chars[i] = (char) ('a' + random.nextInt(6));
+      return new String(chars);
+   }
+}
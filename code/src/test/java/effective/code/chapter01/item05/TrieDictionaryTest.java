@@ -0,0 +1,49 @@
+package effective.code.chapter01.item05;
+
+import effective.code.chapter01.item05.dependencyinjection.SpellChecker;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TrieDictionaryTest {
+
+   @Test
+   void contains() {
+      TrieDictionary dictionary = TrieDictionary.of("test", "tests", "tea");
+
+      assertTrue(dictionary.contains("test"));
+      assertTrue(dictionary.contains("tea"));
+      assertFalse(dictionary.contains("te"));
+      assertFalse(dictionary.contains("testing"));
+   }
+
+   @Test
+   void closeWordsTo() {
+      TrieDictionary dictionary = new TrieDictionary(Map.of("the", 100, "tea", 5, "ten", 10, "apple", 1), 1);
+
+      assertEquals(List.of("tea", "ten"), dictionary.closeWordsTo("tea"));
+      assertEquals(List.of("ten", "tea"), dictionary.closeWordsTo("tez")); // 같은 거리면 빈도순
+      assertTrue(dictionary.closeWordsTo("banana").isEmpty());
+   }
+
+   @Test
+   void complete() {
+      TrieDictionary dictionary = new TrieDictionary(Map.of("the", 100, "them", 20, "then", 30, "tea", 5), 1, 2);
+
+      assertEquals(List.of("the", "then"), dictionary.complete("th", 2));
+      assertEquals(List.of("the", "then", "them"), dictionary.complete("th", 5)); // 미리 계산한 개수보다 많이
+      assertEquals(List.of("tea"), dictionary.complete("te", 2));
+      assertTrue(dictionary.complete("x", 2).isEmpty());
+   }
+
+   @Test
+   void spellChecker() {
+      SpellChecker spellChecker = new SpellChecker(() -> TrieDictionary.of("test"));
+
+      assertTrue(spellChecker.isValid("test"));
+      assertEquals(List.of("test"), spellChecker.suggestions("tset"));
+   }
+}
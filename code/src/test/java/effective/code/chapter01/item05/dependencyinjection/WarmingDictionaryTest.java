@@ -0,0 +1,44 @@
+package effective.code.chapter01.item05.dependencyinjection;
+
+import effective.code.chapter01.item05.TrieDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class WarmingDictionaryTest {
+
+   @Test
+   void fallbackUntilLoaded() throws Exception {
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      CountDownLatch release = new CountDownLatch(1);
+      WarmingDictionary dictionary = new WarmingDictionary(() -> {
+         try {
+            release.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         return TrieDictionary.of("the", "effective");
+      }, executor, Duration.ofMillis(200));
+
+      SpellChecker spellChecker = new SpellChecker(() -> dictionary); // 바로 반환된다.
+
+      assertTrue(spellChecker.isValid("the")); // maxWait 만큼 기다린 뒤 기본 사전
+      long start = System.nanoTime();
+      assertFalse(spellChecker.isValid("effective")); // 두 번째부터는 기다리지 않는다.
+      assertTrue(System.nanoTime() - start < Duration.ofMillis(100).toNanos());
+      assertEquals(1, dictionary.getWaitCount());
+      assertEquals(2, dictionary.getFallbackCount());
+
+      release.countDown();
+      dictionary.whenLoaded().get();
+
+      assertTrue(spellChecker.isValid("effective"));
+      assertTrue(dictionary.isLoaded());
+      executor.shutdown();
+   }
+}
@@ -0,0 +1,67 @@
+package effective.code.chapter01.item05.springioc;
+
+import effective.code.chapter01.item05.Dictionary;
+import effective.code.chapter01.item05.TrieDictionary;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CountDownLatch;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DictionaryHolderTest {
+
+   @Test
+   void keepsOldSnapshotUntilReloadCompletes() throws InterruptedException {
+      SpringDictionary initial = new SpringDictionary();
+      TrieDictionary next = TrieDictionary.of("spring");
+      CountDownLatch building = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+
+      try (DictionaryHolder holder = new DictionaryHolder(initial)) {
+         CompletableFuture<Dictionary> reload = holder.reload(() -> {
+            building.countDown();
+            try {
+               release.await();
+            } catch (InterruptedException e) {
+               throw new IllegalStateException(e);
+            }
+            return next;
+         });
+
+         building.await();
+         assertSame(initial, holder.current());
+         assertEquals(1L, holder.version());
+         assertFalse(holder.contains("spring"));
+
+         release.countDown();
+         assertSame(next, reload.join());
+         assertSame(next, holder.current());
+         assertEquals(2L, holder.version());
+         assertTrue(holder.contains("spring"));
+      }
+   }
+
+   @Test
+   void failedReloadKeepsOldSnapshot() {
+      SpringDictionary initial = new SpringDictionary();
+
+      try (DictionaryHolder holder = new DictionaryHolder(initial)) {
+         CompletableFuture<Dictionary> reload = holder.reload(() -> {
+            throw new IllegalStateException("사전 파일 없음");
+         });
+
+         CompletionException e = assertThrows(CompletionException.class, reload::join);
+         assertTrue(e.getCause() instanceof IllegalStateException);
+         assertTrue(reload.isCompletedExceptionally());
+         assertSame(initial, holder.current());
+         assertEquals(1L, holder.version());
+
+         // 실패한 뒤에도 다음 교체는 이어서 처리된다.
+         TrieDictionary next = TrieDictionary.of("spring");
+         assertSame(next, holder.reload(() -> next).join());
+         assertEquals(2L, holder.version());
+      }
+   }
+}
@@ -0,0 +1,103 @@
+package effective.code.chapter01.item07.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedCacheTest {
+
+   @Test
+   void weightBoundedCache() {
+      // 무게 상한이 커도 빈도 스케치는 항목 수만큼만 만든다.
+      BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+            .maximumWeight(256L * 1024 * 1024, (key, value) -> value.length())
+            .build();
+      for (int i = 0; i < 1_000; i++)
+         cache.put(i, "x".repeat(100));
+
+      assertEquals(1_000, cache.estimatedSize());
+      assertEquals(100_000, cache.weightedSize());
+   }
+
+   @Test
+   void weightBoundedCacheEvicts() {
+      BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+            .maximumWeight(100, (key, value) -> value.length())
+            .build();
+      for (int i = 0; i < 50; i++)
+         cache.put(i, "x".repeat(10));
+
+      assertTrue(cache.weightedSize() <= 100);
+      assertEquals(10, cache.estimatedSize());
+   }
+
+   @Test
+   void softOverflowPromotesEvicted() {
+      BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+            .maximumSize(10)
+            .softOverflow()
+            .build();
+      for (int i = 0; i < 50; i++)
+         cache.put(i, "v" + i);
+      assertEquals(10, cache.estimatedSize());
+
+      for (int i = 0; i < 50; i++)
+         assertEquals("v" + i, cache.getIfPresent(i)); // 밀려난 값도 soft 영역에서 되살아남
+      assertTrue(cache.stats().softHitCount() > 0);
+   }
+
+   @Test
+   void softOverflowForgetsInvalidated() {
+      BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+            .maximumSize(10)
+            .softOverflow()
+            .build();
+      for (int i = 0; i < 50; i++)
+         cache.put(i, "v" + i);
+
+      cache.invalidate(0);
+      cache.asMap().remove(1);
+      assertNull(cache.getIfPresent(0)); // soft 영역에 남은 값이 되살아나지 않음
+      assertNull(cache.getIfPresent(1));
+
+      cache.invalidateAll();
+      for (int i = 0; i < 50; i++)
+         assertNull(cache.getIfPresent(i));
+   }
+
+   @Test
+   void refreshSurvivesLoaderError() {
+      AtomicLong now = new AtomicLong();
+      List<Runnable> refreshes = new ArrayList<>();
+      BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+            .maximumSize(10)
+            .refreshAfterWrite(Duration.ofMinutes(1))
+            .refreshExecutor(refreshes::add)
+            .ticker(now::get)
+            .build();
+      AtomicInteger loads = new AtomicInteger();
+      Function<Integer, String> loader = key -> {
+         if (loads.incrementAndGet() == 2)
+            throw new StackOverflowError(); // 첫 다시 읽기
+         return "v" + loads.get();
+      };
+      assertEquals("v1", cache.get(1, loader));
+
+      now.addAndGet(Duration.ofMinutes(1).toNanos());
+      assertEquals("v1", cache.get(1, loader));
+      refreshes.get(0).run(); // Error 가 나도 다시 읽기를 마무리한다.
+      assertEquals(1, cache.stats().refreshFailureCount());
+
+      assertEquals("v1", cache.get(1, loader)); // 옛 값을 그대로 두고 다시 시도한다.
+      assertEquals(2, refreshes.size());
+      refreshes.get(1).run();
+      assertEquals("v3", cache.get(1, loader));
+   }
+}
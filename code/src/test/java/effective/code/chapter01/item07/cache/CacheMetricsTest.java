@@ -0,0 +1,53 @@
+package effective.code.chapter01.item07.cache;
+
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CacheMetricsTest {
+
+   @Test
+   void registeredWhileOpen() throws Exception {
+      MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+      ObjectName name = new ObjectName("effective.code.cache:type=BoundedCache,name=" + ObjectName.quote("metrics-test"));
+
+      BoundedCache<Integer, String> cache = BoundedCache.<Integer, String>builder()
+            .maximumSize(100)
+            .name("metrics-test")
+            .registerMBean()
+            .build();
+      try {
+         assertTrue(server.isRegistered(name));
+
+         cache.get(1, key -> "one");
+         cache.get(1, key -> "one");
+         cache.get(2, key -> "two");
+         assertThrows(RuntimeException.class, () -> cache.get(3, key -> {
+            throw new IllegalStateException();
+         }));
+
+         assertEquals(1L, server.getAttribute(name, "HitCount"));
+         assertEquals(3L, server.getAttribute(name, "MissCount"));
+         assertEquals(2L, server.getAttribute(name, "LoadSuccessCount"));
+         assertEquals(1L, server.getAttribute(name, "LoadFailureCount"));
+         assertEquals(2L, server.getAttribute(name, "EstimatedSize"));
+         assertEquals(100L, server.getAttribute(name, "MaximumWeight"));
+         assertEquals(0.25, (double) server.getAttribute(name, "HitRate"), 1e-9);
+         assertTrue((long) server.getAttribute(name, "LoadLatencyP99Nanos") > 0);
+
+         // 이름이 겹치면 build 가 실패한다.
+         assertThrows(IllegalStateException.class, () -> BoundedCache.<Integer, String>builder()
+               .maximumSize(100)
+               .name("metrics-test")
+               .registerMBean()
+               .build());
+      } finally {
+         cache.close();
+      }
+      assertFalse(server.isRegistered(name));
+   }
+}
@@ -0,0 +1,48 @@
+package effective.code.chapter01.item07.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LatencyHistogramTest {
+
+   @Test
+   void percentilesWithinDocumentedError() {
+      Random random = new Random(3);
+      LatencyHistogram histogram = new LatencyHistogram();
+      long[] values = new long[100_000];
+      for (int i = 0; i < values.length; i++) {
+         values[i] = (long) Math.pow(10, 1 + random.nextDouble() * 8); // 10ns ~ 1s 를 로그 균등하게
+         histogram.record(values[i]);
+      }
+      Arrays.sort(values);
+
+      assertEquals(values.length, histogram.count());
+      for (double percentile : new double[]{0, 1, 10, 50, 90, 99, 99.9, 99.99, 100}) {
+         long exact = values[(int) Math.max(0, Math.ceil(values.length * percentile / 100) - 1)];
+         long reported = histogram.valueAtPercentile(percentile);
+         assertTrue(reported >= exact && reported <= exact * 1.125,
+               "p" + percentile + ": " + reported + " vs " + exact);
+      }
+   }
+
+   @Test
+   void smallAndExtremeValues() {
+      LatencyHistogram histogram = new LatencyHistogram();
+      assertEquals(0, histogram.valueAtPercentile(50)); // 기록이 없으면 0
+
+      for (long nanos = 0; nanos < 8; nanos++)
+         histogram.record(nanos);
+      assertEquals(3, histogram.valueAtPercentile(50)); // 8 미만은 칸 하나가 값 하나다.
+      assertEquals(7, histogram.valueAtPercentile(100));
+
+      histogram.record(-5);
+      histogram.record(Long.MAX_VALUE);
+      assertEquals(10, histogram.count());
+      assertEquals(Long.MAX_VALUE, histogram.valueAtPercentile(100));
+      assertThrows(IllegalArgumentException.class, () -> histogram.valueAtPercentile(101));
+   }
+}
@@ -4,37 +4,365 @@ import effective.code.chapter01.item07.cache.CacheKey;
 import effective.code.chapter01.item07.cache.Post;
 import effective.code.chapter01.item07.cache.PostRepository;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
 
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 class PostRepositoryTest {
 
    @Test
-   void cache() throws InterruptedException {
+   void cache() {
       PostRepository postRepository = new PostRepository();
       CacheKey key1 = new CacheKey(1);
-      postRepository.getPostById(key1);
-
+      Post post = postRepository.getPostById(key1);
 
       assertFalse(postRepository.getCache().isEmpty()); // 캐시가 있음
+      assertSame(post, postRepository.getPostById(new CacheKey(1))); // 값이 같은 키로 찾아짐
+   }
+
+   @Test
+   void hotPostsSurviveScan() {
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100));
+      for (int round = 0; round < 20; round++) {
+         for (int id = 1; id <= 10; id++)
+            postRepository.getPostById(new CacheKey(id));
+      }
+
+      for (int id = 1_000; id < 3_000; id++) // 한 번씩만 읽고 지나가는 요청
+         postRepository.getPostById(new CacheKey(id));
+
+      assertEquals(100, postRepository.getCache().size());
+      for (int id = 1; id <= 10; id++)
+         assertTrue(postRepository.getCache().containsKey(new CacheKey(id)));
+   }
+
+   @Test
+   void expireAfterWrite() {
+      AtomicLong now = new AtomicLong();
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder()
+            .maximumSize(100)
+            .expireAfterWrite(Duration.ofMinutes(1))
+            .ticker(now::get));
+      Post post = postRepository.getPostById(new CacheKey(1));
+
+      now.addAndGet(Duration.ofSeconds(59).toNanos());
+      assertSame(post, postRepository.getPostById(new CacheKey(1)));
+
+      now.addAndGet(Duration.ofSeconds(1).toNanos());
+      assertFalse(postRepository.getCache().containsKey(new CacheKey(1))); // 만료됨
+      assertNotSame(post, postRepository.getPostById(new CacheKey(1))); // 다시 읽어옴
+   }
+
+   @Test
+   void refreshAfterWrite() {
+      AtomicLong now = new AtomicLong();
+      List<Runnable> refreshes = new ArrayList<>();
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder()
+            .maximumSize(100)
+            .refreshAfterWrite(Duration.ofMinutes(1))
+            .refreshExecutor(refreshes::add)
+            .ticker(now::get));
+      Post post = postRepository.getPostById(new CacheKey(1));
+
+      now.addAndGet(Duration.ofMinutes(1).toNanos());
+      assertSame(post, postRepository.getPostById(new CacheKey(1))); // 다시 읽는 동안에는 옛 값
+      assertEquals(1, refreshes.size());
+
+      refreshes.get(0).run();
+      assertNotSame(post, postRepository.getPostById(new CacheKey(1)));
+      assertEquals(1, postRepository.getStats().refreshSuccessCount());
+   }
+
+   @Test
+   void concurrentMissesLoadOnce() throws Exception {
+      AtomicInteger loads = new AtomicInteger();
+      CountDownLatch loading = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100), key -> {
+         loads.incrementAndGet();
+         loading.countDown();
+         try {
+            release.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         Post post = new Post();
+         post.setId(key.getValue());
+         return post;
+      });
+
+      int callers = 8;
+      ExecutorService executor = Executors.newFixedThreadPool(callers);
+      try {
+         List<Future<Post>> futures = new ArrayList<>();
+         for (int i = 0; i < callers; i++)
+            futures.add(executor.submit(() -> postRepository.getPostById(new CacheKey(1))));
+
+         // 읽기를 붙잡아 둔 채, 나머지 호출이 모두 그 읽기에 합류한 것을 통계로 확인한 뒤에 풀어 준다.
+         assertTrue(loading.await(10, TimeUnit.SECONDS));
+         long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+         while (postRepository.getStats().coalescedLoadCount() < callers - 1) {
+            assertTrue(System.nanoTime() < deadline, "합류한 호출: " + postRepository.getStats().coalescedLoadCount());
+            Thread.sleep(1L);
+         }
+         assertEquals(1, loads.get());
+         release.countDown();
+
+         for (Future<Post> future : futures)
+            assertSame(futures.get(0).get(), future.get());
+         assertEquals(1, loads.get());
+         assertEquals(callers - 1, postRepository.getStats().coalescedLoadCount());
+         assertEquals(1, postRepository.getStats().loadSuccessCount());
+      } finally {
+         release.countDown();
+         executor.shutdownNow();
+      }
+   }
+
+   @Test
+   void getPostsByIds() {
+      List<Set<CacheKey>> batches = new ArrayList<>();
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100), key -> null, keys -> {
+         batches.add(Set.copyOf(keys));
+         Map<CacheKey, Post> posts = new HashMap<>();
+         for (CacheKey key : keys) {
+            Post post = new Post();
+            post.setId(key.getValue());
+            posts.put(key, post);
+         }
+         return posts;
+      });
+      postRepository.getPostsByIds(List.of(new CacheKey(2)));
+
+      List<Post> posts = postRepository.getPostsByIds(List.of(new CacheKey(3), new CacheKey(2), new CacheKey(1)));
+
+      assertEquals(List.of(3, 2, 1), posts.stream().map(Post::getId).collect(Collectors.toList())); // 요청한 순서
+      assertEquals(List.of(Set.of(new CacheKey(2)), Set.of(new CacheKey(3), new CacheKey(1))), batches); // 없는 것만 한 번에
+   }
+
+   @Test
+   void missingPostsAreRemembered() {
+      AtomicInteger loads = new AtomicInteger();
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100), key -> {
+         loads.incrementAndGet();
+         return null; // 지워진 글
+      });
+
+      assertNull(postRepository.getPostById(new CacheKey(404)));
+      assertNull(postRepository.getPostById(new CacheKey(404)));
+
+      assertEquals(1, loads.get());
+      assertTrue(postRepository.getCache().isEmpty());
+      assertEquals(1, postRepository.getMissingStats().hitCount());
+   }
 
+   @Test
+   void writeBehind() {
+      List<List<String>> batches = new ArrayList<>();
+      WriteBehindQueue writeBehind = new WriteBehindQueue(posts -> batches.add(posts.stream().map(Post::getTitle).collect(Collectors.toList())),
+            100, Duration.ofMinutes(1), 100);
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100),
+            key -> null, keys -> Map.of(), writeBehind);
+
+      for (String title : List.of("a", "b", "c")) {
+         Post post = new Post();
+         post.setId(1);
+         post.setTitle(title);
+         postRepository.save(post);
+      }
+      assertEquals("c", postRepository.getPostById(new CacheKey(1)).getTitle()); // 캐시에는 바로 반영
+      assertTrue(batches.isEmpty());
+
+      postRepository.close();
+      assertEquals(List.of(List.of("c")), batches); // 닫을 때 하나로 합쳐서 씀
+   }
+
+   @Test
+   void concurrentSavesOfSamePost() throws Exception {
+      Map<Integer, String> stored = new HashMap<>();
+      WriteBehindQueue writeBehind = new WriteBehindQueue(posts -> {
+         synchronized (stored) {
+            posts.forEach(post -> stored.put(post.getId(), post.getTitle()));
+         }
+      }, 10, Duration.ofMinutes(1), 100);
+      BoundedCache.Builder<CacheKey, Post> cacheBuilder = BoundedCache.<CacheKey, Post>builder().maximumWeight(100, (key, post) -> {
+         Thread.yield(); // 대기열에 넣은 뒤 캐시에 담기 전에 다른 저장이 끼어들 틈을 넓힌다.
+         return 1;
+      });
+      PostRepository postRepository = new PostRepository(cacheBuilder, key -> null, keys -> Map.of(), writeBehind);
+
+      ExecutorService executor = Executors.newFixedThreadPool(2);
+      for (int round = 0; round < 500; round++) {
+         CyclicBarrier start = new CyclicBarrier(2);
+         List<Future<?>> futures = new ArrayList<>();
+         for (String title : List.of("a" + round, "b" + round)) {
+            futures.add(executor.submit(() -> {
+               Post post = new Post();
+               post.setId(1);
+               post.setTitle(title);
+               start.await();
+               postRepository.save(post);
+               return null;
+            }));
+         }
+         for (Future<?> future : futures)
+            future.get();
+         writeBehind.flush();
+
+         synchronized (stored) {
+            assertEquals(stored.get(1), postRepository.getPostById(new CacheKey(1)).getTitle(), "round " + round); // 캐시와 저장소가 같은 글
+         }
+      }
+      executor.shutdown();
+      postRepository.close();
+   }
+
+   @Test
+   void writeBehindSplitsBatches() {
+      List<List<Integer>> batches = new ArrayList<>();
+      AtomicInteger calls = new AtomicInteger();
+      WriteBehindQueue writeBehind = new WriteBehindQueue(posts -> {
+         if (calls.incrementAndGet() == 2)
+            throw new IllegalStateException("저장소 오류");
+         synchronized (batches) {
+            batches.add(posts.stream().map(Post::getId).collect(Collectors.toList()));
+         }
+      }, 10, Duration.ofMinutes(1), 100);
+
+      for (int id = 1; id <= 25; id++) {
+         Post post = new Post();
+         post.setId(id);
+         writeBehind.enqueue(post);
+      }
+      while (writeBehind.pendingCount() > 0) {
+         try {
+            writeBehind.flush();
+         } catch (IllegalStateException e) {
+            // 실패한 묶음만 되돌려 놓았다.
+         }
+      }
+      writeBehind.close();
+
+      assertEquals(1, writeBehind.failedFlushCount());
+      assertEquals(25, writeBehind.writtenCount());
+      List<Integer> ids = new ArrayList<>();
+      for (List<Integer> batch : batches) {
+         assertTrue(batch.size() <= 10, batch.toString());
+         ids.addAll(batch);
+      }
+      assertEquals(25, ids.size()); // 실패한 묶음만 다시 썼고, 두 번 쓴 글은 없다.
+      assertEquals(25, Set.copyOf(ids).size());
+   }
+
+   @Test
+   void writeBehindSurvivesWriterError() throws InterruptedException {
+      AtomicInteger calls = new AtomicInteger();
+      WriteBehindQueue writeBehind = new WriteBehindQueue(posts -> {
+         if (calls.incrementAndGet() == 1)
+            throw new StackOverflowError();
+      }, 2, Duration.ofMillis(10), 2);
+
+      for (int id = 1; id <= 6; id++) { // 자리가 둘뿐이라 실패한 묶음의 자리를 돌려받아야 계속 넣을 수 있다.
+         Post post = new Post();
+         post.setId(id);
+         writeBehind.enqueue(post);
+      }
+      for (int i = 0; i < 500 && writeBehind.writtenCount() < 6; i++)
+         Thread.sleep(10L); // 주기적으로 비우는 일이 멈추지 않았다.
+
+      assertEquals(6, writeBehind.writtenCount());
+      assertEquals(1, writeBehind.failedFlushCount());
+      assertEquals(0, writeBehind.pendingCount());
+      writeBehind.close();
+   }
+
+   @Test
+   void saveWinsOverInFlightLoad() throws Exception {
+      CountDownLatch loading = new CountDownLatch(1);
+      CountDownLatch release = new CountDownLatch(1);
+      WriteBehindQueue writeBehind = new WriteBehindQueue(posts -> {}, 100, Duration.ofMinutes(1), 100);
+      PostRepository postRepository = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100), key -> {
+         loading.countDown();
+         try {
+            release.await();
+         } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+         }
+         Post post = new Post();
+         post.setId(key.getValue());
+         post.setTitle("stale-from-store");
+         return post;
+      }, keys -> Map.of(), writeBehind);
+
+      ExecutorService executor = Executors.newSingleThreadExecutor();
+      Future<Post> reader = executor.submit(() -> postRepository.getPostById(new CacheKey(1)));
+      loading.await();
+
+      Post edited = new Post();
+      edited.setId(1);
+      edited.setTitle("edited");
+      postRepository.save(edited); // 읽는 도중에 저장
+      release.countDown();
+
+      assertEquals("edited", reader.get().getTitle());
+      assertEquals("edited", postRepository.getPostById(new CacheKey(1)).getTitle()); // 읽어온 옛 값이 덮어쓰지 않음
+      executor.shutdown();
+      postRepository.close();
+   }
+
+   @Test
+   void snapshot(@TempDir Path dir) throws IOException {
+      PostRepository postRepository = new PostRepository();
+      for (int id = 1; id <= 10; id++)
+         postRepository.getPostById(new CacheKey(id));
+      Path snapshot = dir.resolve("posts.bin");
+      assertEquals(5, postRepository.writeSnapshot(snapshot, 5));
+
+      PostRepository restarted = new PostRepository();
+      assertEquals(5, restarted.loadSnapshot(snapshot, Duration.ofMinutes(5)));
+      assertEquals(5, restarted.getCache().size());
+   }
+
+   @Test
+   void snapshotSkipsOldPosts(@TempDir Path dir) throws IOException {
+      List<BoundedCache.HotEntry<CacheKey, Post>> entries = new ArrayList<>();
+      for (int id = 1; id <= 4; id++) {
+         Post post = new Post();
+         post.setId(id);
+         post.setTitle("post " + id);
+         Duration age = id % 2 == 0 ? Duration.ofMinutes(10) : Duration.ofMinutes(1);
+         entries.add(new BoundedCache.HotEntry<>(new CacheKey(id), post, age));
+      }
+      Path snapshot = dir.resolve("posts.bin");
+      PostSnapshot.write(entries, snapshot);
 
-      // TODO run gc
-      System.out.println("run gc");
-      System.gc();
-      System.out.println("wait");
-      Thread.sleep(3000L);
+      PostRepository restarted = new PostRepository(BoundedCache.<CacheKey, Post>builder().maximumSize(100));
+      assertEquals(2, restarted.loadSnapshot(snapshot, Duration.ofMinutes(5))); // 10분 전에 쓰인 글은 건너뜀
+      assertEquals(Set.of(new CacheKey(1), new CacheKey(3)), restarted.getCache().keySet());
 
-      assertTrue(postRepository.getCache().isEmpty()); // 캐시가 비어있음
+      assertThrows(IllegalArgumentException.class, () -> restarted.loadSnapshot(snapshot, Duration.ofMinutes(-1)));
    }
 
    @Test
@@ -5,6 +5,7 @@ import effective.code.chapter01.item07.listener.User;
 import org.junit.jupiter.api.Test;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,4 +31,53 @@ class ChatRoomTest {
       List<WeakReference<User>> users = chatRoom.getUsers();
       assertTrue(users.size() == 1);
    }
-}
\ No newline at end of file
+
+   @Test
+   void unreachableUserIsDropped() throws InterruptedException {
+      ChatRoom chatRoom = new ChatRoom();
+      List<String> received = new ArrayList<>();
+      User user = new User() {
+         @Override
+         public void receive(String message) {
+            received.add(message);
+         }
+      };
+      chatRoom.addUser(user);
+      chatRoom.addUser(new User()); // 채팅방 말고는 아무도 참조하지 않는다.
+      assertEquals(2, chatRoom.getUsers().size());
+
+      for (int i = 0; i < 100 && chatRoom.getUsers().size() > 1; i++) {
+         System.gc();
+         Thread.sleep(10L);
+      }
+
+      chatRoom.sendMessage("hello"); // 치워진 사용자가 있어도 예외가 나지 않는다.
+      assertEquals(List.of("hello"), received);
+      List<WeakReference<User>> users = chatRoom.getUsers();
+      assertEquals(1, users.size());
+      assertSame(user, users.get(0).get());
+   }
+
+   @Test
+   void mailboxDropsOldest() {
+      List<Runnable> tasks = new ArrayList<>();
+      ChatRoom chatRoom = new ChatRoom(tasks::add, 2, OverflowPolicy.DROP_OLDEST);
+      List<String> received = new ArrayList<>();
+      User user = new User() {
+         @Override
+         public void receive(String message) {
+            received.add(message);
+         }
+      };
+      chatRoom.addUser(user);
+
+      for (int i = 1; i <= 5; i++)
+         chatRoom.sendMessage("m" + i);
+      assertEquals(2, chatRoom.getQueueDepth());
+      assertTrue(received.isEmpty()); // 보내는 쪽은 기다리지 않음
+
+      tasks.forEach(Runnable::run);
+      assertEquals(List.of("m4", "m5"), received);
+      assertEquals(3, chatRoom.getDeliveryStats().droppedCount());
+   }
+}